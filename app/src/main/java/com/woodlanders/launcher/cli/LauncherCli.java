@@ -0,0 +1,273 @@
+package com.woodlanders.launcher.cli;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.diagnostics.FlightRecording;
+import com.woodlanders.launcher.metrics.LauncherMetrics;
+import com.woodlanders.launcher.metrics.MetricsExporter;
+import com.woodlanders.launcher.model.ReleaseInfo;
+import com.woodlanders.launcher.model.SessionMetrics;
+import com.woodlanders.launcher.model.VersionMetadata;
+import com.woodlanders.launcher.services.CacheManager;
+import com.woodlanders.launcher.services.GameLaunchService;
+import com.woodlanders.launcher.services.LauncherServices;
+import com.woodlanders.launcher.util.Hashing;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Headless entry point for scripted updates, e.g. from cron across a fleet of machines. It shares the
+ * services of the window but never touches JavaFX, so a run costs a JVM start plus the work itself.
+ * Each command prints one JSON object on standard output; logging goes to standard error and the
+ * game's own output to {@link LauncherPaths#clientLogPath()}.
+ *
+ * <pre>
+ *   woodlanders-launcher-cli check             local and latest version, whether an update is due
+ *   woodlanders-launcher-cli update [--stage]  install the latest release, or only stage it
+ *   woodlanders-launcher-cli verify            re-hash the active client and the stored versions
+ *   woodlanders-launcher-cli launch [--wait]   start the game, optionally until it exits
+ * </pre>
+ *
+ * The exit code is {@code 0} on success, {@code 1} when the command failed or found a problem and
+ * {@code 2} for invalid arguments.
+ */
+public final class LauncherCli {
+    private static final Logger LOG = LoggerFactory.getLogger(LauncherCli.class);
+    static final int OK = 0;
+    static final int FAILED = 1;
+    static final int USAGE = 2;
+    static final String USAGE_TEXT = "Usage: woodlanders-launcher-cli check | update [--stage] | verify | launch [--wait]";
+
+    private final LauncherServices services;
+    private final JsonNodeFactory json = JsonNodeFactory.instance;
+
+    LauncherCli(LauncherServices services) {
+        this.services = services;
+    }
+
+    public static void main(String[] args) {
+        Command command;
+        try {
+            command = Command.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE_TEXT);
+            System.exit(USAGE);
+            return;
+        }
+        Optional<Recording> recording = FlightRecording.startIfEnabled();
+        int status;
+        try (LauncherServices services = new LauncherServices()) {
+            status = new LauncherCli(services).run(command, System.out);
+        } finally {
+            writeMetrics();
+            recording.ifPresent(Recording::close);
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Runs {@code command}, prints its result to {@code out} and returns the exit code.
+     */
+    int run(Command command, PrintStream out) {
+        ObjectNode result = json.objectNode().put("command", command.name());
+        int status;
+        try {
+            status = switch (command.name()) {
+                case "check" -> check(result);
+                case "update" -> update(result, command.has("--stage"));
+                case "verify" -> verify(result);
+                case "launch" -> launch(result, command.has("--wait"));
+                default -> throw new IllegalStateException("Unknown command " + command.name());
+            };
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Command {} failed", command.name(), e);
+            result.put("error", String.valueOf(e.getMessage()));
+            status = FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.put("error", "interrupted");
+            status = FAILED;
+        }
+        result.put("ok", status == OK);
+        try {
+            out.println(services.objectMapper().writeValueAsString(result));
+        } catch (IOException e) {
+            LOG.error("Failed to write the result", e);
+            return FAILED;
+        }
+        return status;
+    }
+
+    private int check(ObjectNode result) {
+        Optional<VersionMetadata> local = services.versionService().readMetadata();
+        putVersion(result, "local", local);
+        services.versionService().readPending().ifPresent(pending -> result.put("pending", pending.version()));
+        Optional<ReleaseInfo> latest = services.githubService().fetchLatestRelease();
+        if (latest.isEmpty()) {
+            result.put("error", "release check failed");
+            return FAILED;
+        }
+        result.put("latest", latest.get().tagName());
+        result.put("update_available", !isCurrent(local, latest.get()));
+        return OK;
+    }
+
+    private int update(ObjectNode result, boolean stage) throws IOException, InterruptedException {
+        // Staging must leave the active client alone, since the game may be running from it
+        Optional<VersionMetadata> local = stage ? services.versionService().readMetadata() : activateAndRead();
+        putVersion(result, "previous", local);
+        Optional<ReleaseInfo> latest = services.githubService().fetchLatestRelease();
+        if (latest.isEmpty()) {
+            result.put("error", "release check failed");
+            return FAILED;
+        }
+        ReleaseInfo release = latest.get();
+        if (isCurrent(local, release)) {
+            result.put("version", release.tagName()).put("action", "none");
+            return OK;
+        }
+        CacheManager.collectStalePartials(LauncherPaths.configDirectory(), CacheManager.PARTIAL_MAX_AGE);
+        VersionMetadata metadata = stage
+                ? services.stagingService().stage(release)
+                : services.updateService().install(release);
+        result.put("version", metadata.version())
+                .put("action", stage ? "staged" : "installed")
+                .put("sha256", metadata.sha256())
+                .put("bytes", metadata.assetSize())
+                .put("bytes_per_second", metadata.downloadBytesPerSecond());
+        return OK;
+    }
+
+    private int verify(ObjectNode result) throws IOException {
+        Optional<VersionMetadata> local = services.versionService().readMetadata();
+        putVersion(result, "version", local);
+        boolean intact = false;
+        Path jar = LauncherPaths.clientJarPath();
+        if (local.isPresent() && Files.exists(jar)) {
+            String actual = Hashing.sha256(jar);
+            intact = actual.equalsIgnoreCase(local.get().sha256());
+            result.put("active_sha256", actual);
+        }
+        result.put("active_intact", intact);
+        ArrayNode stored = result.putArray("stored");
+        for (VersionMetadata installed : services.versionService().installedVersions()) {
+            ObjectNode entry = stored.addObject().put("version", installed.version());
+            if (!services.clientStore().contains(installed.sha256())) {
+                entry.put("present", false);
+                continue;
+            }
+            boolean matches = Hashing.sha256(services.clientStore().blobPath(installed.sha256()))
+                    .equalsIgnoreCase(installed.sha256());
+            entry.put("present", true).put("intact", matches);
+            intact &= matches;
+        }
+        return intact ? OK : FAILED;
+    }
+
+    private int launch(ObjectNode result, boolean wait) throws IOException, InterruptedException {
+        Optional<VersionMetadata> local = activateAndRead();
+        putVersion(result, "version", local);
+        // The game's output goes to a log file: standard output is reserved for the JSON result, and
+        // without --wait the game outlives this process
+        Path log = LauncherPaths.clientLogPath();
+        GameLaunchService.LaunchedClient launched = services.gameLaunchService()
+                .launch(local.map(VersionMetadata::sha256).orElse(null), log);
+        result.put("pid", launched.process().pid()).put("log", log.toString());
+        // Supervising writes the session record at once; without --wait a later run completes it
+        services.sessionSupervisor().recoverUnfinished();
+        CompletableFuture<SessionMetrics> session = services.sessionSupervisor()
+                .supervise(launched.process(), launched.record(), local.map(VersionMetadata::version).orElse(null));
+        if (!wait) {
+            return OK;
+        }
+        SessionMetrics metrics = session.join();
+        result.put("exit_code", metrics.exitCode())
+                .put("duration_millis", metrics.durationMillis())
+                .put("peak_rss_kilobytes", metrics.peakRssKilobytes());
+        return metrics.failed() ? FAILED : OK;
+    }
+
+    /**
+     * Switches to a staged version first, like the window does before it installs or launches, so the
+     * command acts on the client that would actually run.
+     */
+    private Optional<VersionMetadata> activateAndRead() throws IOException {
+        services.updateService().adoptLegacyClient();
+        Optional<VersionMetadata> activated = services.updateService().activatePending();
+        return activated.isPresent() ? activated : services.versionService().readMetadata();
+    }
+
+    private static boolean isCurrent(Optional<VersionMetadata> local, ReleaseInfo release) {
+        return Files.exists(LauncherPaths.clientJarPath())
+                && local.map(meta -> release.tagName().equals(meta.version())).orElse(false);
+    }
+
+    private static void putVersion(ObjectNode result, String field, Optional<VersionMetadata> metadata) {
+        if (metadata.isPresent()) {
+            result.put(field, metadata.get().version());
+        } else {
+            result.putNull(field);
+        }
+    }
+
+    private static void writeMetrics() {
+        Optional<Path> file = LauncherSettings.metricsFile();
+        if (file.isEmpty()) {
+            return;
+        }
+        try {
+            MetricsExporter.write(LauncherMetrics.REGISTRY, file.get());
+        } catch (IOException e) {
+            LOG.warn("Failed to write metrics to {}", file.get(), e);
+        }
+    }
+
+    /**
+     * A subcommand and its flags.
+     */
+    record Command(String name, Set<String> flags) {
+        private static final List<String> NAMES = List.of("check", "update", "verify", "launch");
+
+        static Command parse(String[] args) {
+            if (args.length == 0) {
+                throw new IllegalArgumentException("No command given");
+            }
+            String name = args[0];
+            if (!NAMES.contains(name)) {
+                throw new IllegalArgumentException("Unknown command: " + name);
+            }
+            Set<String> allowed = switch (name) {
+                case "update" -> Set.of("--stage");
+                case "launch" -> Set.of("--wait");
+                default -> Set.of();
+            };
+            Set<String> flags = new HashSet<>();
+            for (int i = 1; i < args.length; i++) {
+                if (!allowed.contains(args[i])) {
+                    throw new IllegalArgumentException("Unknown option for " + name + ": " + args[i]);
+                }
+                flags.add(args[i]);
+            }
+            return new Command(name, Set.copyOf(flags));
+        }
+
+        boolean has(String flag) {
+            return flags.contains(flag);
+        }
+    }
+}
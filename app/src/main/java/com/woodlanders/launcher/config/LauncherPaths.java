@@ -16,6 +16,17 @@ public final class LauncherPaths {
     private static final String JAVAFX_CACHE_DIR = "woodlanders-javafx";
     private static final String CLIENT_JAR = "woodlanders-client.jar";
     private static final String VERSION_FILE = "version.json";
+    private static final String RELEASE_CACHE_FILE = "release-cache.json";
+    private static final String VERSION_INDEX_FILE = "versions.json";
+    private static final String PENDING_VERSION_FILE = "pending.json";
+    private static final String JVM_PROFILES_FILE = "jvm-profiles.json";
+    private static final String LAUNCH_HISTORY_FILE = "launch-history.jsonl";
+    private static final String SESSIONS_DIR = "sessions";
+    private static final String RECORDINGS_DIR = "recordings";
+    private static final String CLIENT_LOG_FILE = "client.log";
+    private static final String STORE_DIR = "store";
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final String JOURNAL_SUFFIX = ".part.json";
 
     private LauncherPaths() {
     }
@@ -77,12 +88,91 @@ public final class LauncherPaths {
         return configDirectory().resolve(VERSION_FILE);
     }
 
+    /**
+     * Index of every client version held in {@link #clientStoreDirectory()}, keyed by tag.
+     */
+    public static Path versionIndexPath() {
+        return configDirectory().resolve(VERSION_INDEX_FILE);
+    }
+
+    /**
+     * Version that has been downloaded into the store but not activated yet.
+     */
+    public static Path pendingVersionPath() {
+        return configDirectory().resolve(PENDING_VERSION_FILE);
+    }
+
+    /**
+     * Content-addressed store of client jars; {@link #clientJarPath()} points at one of its entries.
+     */
+    public static Path clientStoreDirectory() {
+        return configDirectory().resolve(STORE_DIR);
+    }
+
+    /**
+     * Named JVM profiles for the game process and the one currently selected.
+     */
+    public static Path jvmProfilesPath() {
+        return configDirectory().resolve(JVM_PROFILES_FILE);
+    }
+
+    /**
+     * One JSON line per game launch, newest last.
+     */
+    public static Path launchHistoryPath() {
+        return configDirectory().resolve(LAUNCH_HISTORY_FILE);
+    }
+
+    /**
+     * Per-session resource metrics of the game process, one JSON file per launch.
+     */
+    public static Path sessionsDirectory() {
+        return configDirectory().resolve(SESSIONS_DIR);
+    }
+
+    /**
+     * Flight recordings of launcher sessions, written when {@code -Dwoodlanders.jfr=true}.
+     */
+    public static Path recordingsDirectory() {
+        return configDirectory().resolve(RECORDINGS_DIR);
+    }
+
+    /**
+     * Output of the last game started from the command line, which keeps its own standard output for
+     * the JSON result.
+     */
+    public static Path clientLogPath() {
+        return configDirectory().resolve(CLIENT_LOG_FILE);
+    }
+
+    public static Path releaseCachePath() {
+        return configDirectory().resolve(RELEASE_CACHE_FILE);
+    }
+
     public static Path tempDownloadPath() throws IOException {
         return Files.createTempFile(configDirectory(), "woodlanders-client", ".tmp");
     }
 
+    /**
+     * Stable location of the partially downloaded jar for a release, kept across launcher restarts.
+     */
+    public static Path partialDownloadPath(String tagName) {
+        return configDirectory().resolve("woodlanders-client-" + safeFileName(tagName) + PARTIAL_SUFFIX);
+    }
+
+    /**
+     * Journal describing which bytes of {@link #partialDownloadPath(String)} are complete.
+     */
+    public static Path downloadJournalPath(String tagName) {
+        return configDirectory().resolve("woodlanders-client-" + safeFileName(tagName) + JOURNAL_SUFFIX);
+    }
+
     public static void ensureConfigDirectory() throws IOException {
         Files.createDirectories(configDirectory());
         Files.createDirectories(javafxCacheDirectory());
     }
+
+    private static String safeFileName(String value) {
+        return value.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
 }
@@ -0,0 +1,166 @@
+package com.woodlanders.launcher.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Centralizes launcher tunables that can be overridden with {@code -Dwoodlanders.*} system properties.
+ */
+public final class LauncherSettings {
+    private static final String DOWNLOAD_SEGMENTS = "woodlanders.download.segments";
+    private static final int DEFAULT_DOWNLOAD_SEGMENTS = 4;
+    private static final String RELEASE_CACHE_TTL = "woodlanders.release.cacheTtlSeconds";
+    private static final long DEFAULT_RELEASE_CACHE_TTL_SECONDS = 300;
+    private static final String ENTRY_DELTA_UPDATES = "woodlanders.update.entryDelta";
+    private static final String PARANOID_VERIFICATION = "woodlanders.cache.paranoid";
+    private static final String CLIENT_CACHE_QUOTA = "woodlanders.cache.maxMegabytes";
+    private static final long DEFAULT_CLIENT_CACHE_QUOTA_MEGABYTES = 1024;
+    private static final String LAUNCH_FIRST = "woodlanders.launchFirst";
+    private static final String CLIENT_CLASS_DATA_SHARING = "woodlanders.client.cds";
+    private static final String STARTUP_TRAINING = "woodlanders.startup.training";
+    private static final String JVM_PROFILE = "woodlanders.jvm.profile";
+    private static final String TELEMETRY_INTERVAL = "woodlanders.telemetry.intervalSeconds";
+    private static final long DEFAULT_TELEMETRY_INTERVAL_SECONDS = 5;
+    private static final String UPDATE_CHECK_INTERVAL = "woodlanders.update.checkIntervalMinutes";
+    private static final long DEFAULT_UPDATE_CHECK_INTERVAL_MINUTES = 60;
+    private static final String FLIGHT_RECORDING = "woodlanders.jfr";
+    private static final String METRICS_FILE = "woodlanders.metrics.file";
+    private static final String METRICS_PORT = "woodlanders.metrics.port";
+    private static final String METRICS_INTERVAL = "woodlanders.metrics.intervalSeconds";
+    private static final long DEFAULT_METRICS_INTERVAL_SECONDS = 15;
+    private static final String STAGING_BANDWIDTH = "woodlanders.update.maxKilobytesPerSecond";
+    private static final long DEFAULT_STAGING_BANDWIDTH_KILOBYTES = 2048;
+
+    private LauncherSettings() {
+    }
+
+    /**
+     * Number of concurrent HTTP range requests used to fetch a single client jar.
+     * A value of 1 disables segmented downloads.
+     */
+    public static int downloadSegments() {
+        return Math.max(1, Integer.getInteger(DOWNLOAD_SEGMENTS, DEFAULT_DOWNLOAD_SEGMENTS));
+    }
+
+    /**
+     * How long a cached GitHub release answer is trusted without contacting GitHub at all.
+     * Zero always revalidates (cheaply, with a conditional request).
+     */
+    public static Duration releaseCacheTtl() {
+        return Duration.ofSeconds(Math.max(0, Long.getLong(RELEASE_CACHE_TTL, DEFAULT_RELEASE_CACHE_TTL_SECONDS)));
+    }
+
+    /**
+     * Whether updates may rebuild the new client jar from the installed one, fetching only the zip
+     * entries that changed. Enabled unless {@code -Dwoodlanders.update.entryDelta=false}.
+     */
+    public static boolean entryDeltaUpdates() {
+        return Boolean.parseBoolean(System.getProperty(ENTRY_DELTA_UPDATES, "true"));
+    }
+
+    /**
+     * Whether cached downloads are fully re-hashed on every check instead of trusting a previous
+     * verification while the file's size, modification time and file key are unchanged.
+     */
+    public static boolean paranoidVerification() {
+        return Boolean.getBoolean(PARANOID_VERIFICATION);
+    }
+
+    /**
+     * Upper bound on the size of the client store. Older versions beyond it are evicted, least
+     * recently used first; the active client is always kept.
+     */
+    public static long clientCacheQuotaBytes() {
+        return Math.max(0, Long.getLong(CLIENT_CACHE_QUOTA, DEFAULT_CLIENT_CACHE_QUOTA_MEGABYTES)) * 1024 * 1024;
+    }
+
+    /**
+     * Whether the launcher starts the installed client straight away and only then looks for updates,
+     * staging a newer release in the background for the next start.
+     */
+    public static boolean launchFirst() {
+        return Boolean.getBoolean(LAUNCH_FIRST);
+    }
+
+    /**
+     * Whether the game is started with a per-version class data sharing archive, dumped by its first
+     * run. Enabled unless {@code -Dwoodlanders.client.cds=false}.
+     */
+    public static boolean clientClassDataSharing() {
+        return Boolean.parseBoolean(System.getProperty(CLIENT_CLASS_DATA_SHARING, "true"));
+    }
+
+    /**
+     * Name of the JVM profile to launch the game with, overriding the selection saved in
+     * {@code jvm-profiles.json}; {@code null} when not set.
+     */
+    public static String jvmProfile() {
+        String name = System.getProperty(JVM_PROFILE);
+        return name == null || name.isBlank() ? null : name.trim();
+    }
+
+    /**
+     * How often the running game's CPU time, memory and thread count are sampled.
+     */
+    public static Duration telemetryInterval() {
+        return Duration.ofSeconds(Math.max(1, Long.getLong(TELEMETRY_INTERVAL, DEFAULT_TELEMETRY_INTERVAL_SECONDS)));
+    }
+
+    /**
+     * Whether this is the build's training run, which quits after startup so the JVM can record the
+     * classes the launcher needs into a class data sharing archive.
+     */
+    public static boolean startupTraining() {
+        return Boolean.getBoolean(STARTUP_TRAINING);
+    }
+
+    /**
+     * How often the background updater looks for a new release while the launcher is open.
+     * Zero disables background updates.
+     */
+    public static Duration updateCheckInterval() {
+        long minutes = Long.getLong(UPDATE_CHECK_INTERVAL, DEFAULT_UPDATE_CHECK_INTERVAL_MINUTES);
+        return Duration.ofMinutes(Math.max(0, minutes));
+    }
+
+    /**
+     * Bandwidth cap for releases staged in the background, in bytes per second. Zero means unlimited;
+     * foreground downloads are never capped.
+     */
+    public static long stagingBandwidthBytesPerSecond() {
+        return Math.max(0, Long.getLong(STAGING_BANDWIDTH, DEFAULT_STAGING_BANDWIDTH_KILOBYTES)) * 1024;
+    }
+
+    /**
+     * Whether the launcher keeps a continuous JDK Flight Recorder recording of the session in the
+     * config directory, for diagnosing slow starts and downloads after the fact.
+     */
+    public static boolean flightRecording() {
+        return Boolean.getBoolean(FLIGHT_RECORDING);
+    }
+
+    /**
+     * File the metrics are periodically written to in the Prometheus text format, e.g. inside
+     * node_exporter's textfile collector directory; empty when not set.
+     */
+    public static Optional<Path> metricsFile() {
+        String file = System.getProperty(METRICS_FILE);
+        return file == null || file.isBlank() ? Optional.empty() : Optional.of(Path.of(file.trim()));
+    }
+
+    /**
+     * Loopback port serving the metrics at {@code /metrics}; {@code 0}, the default, serves nothing.
+     */
+    public static int metricsPort() {
+        int port = Integer.getInteger(METRICS_PORT, 0);
+        return port > 0 && port <= 65535 ? port : 0;
+    }
+
+    /**
+     * How often the {@linkplain #metricsFile() metrics file} is rewritten.
+     */
+    public static Duration metricsInterval() {
+        return Duration.ofSeconds(Math.max(1, Long.getLong(METRICS_INTERVAL, DEFAULT_METRICS_INTERVAL_SECONDS)));
+    }
+}
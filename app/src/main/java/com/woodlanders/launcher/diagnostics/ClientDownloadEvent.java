@@ -0,0 +1,39 @@
+package com.woodlanders.launcher.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Download of a client release into the client store, whether as a full transfer, a patch or
+ * changed entries.
+ */
+@Name("com.woodlanders.launcher.ClientDownload")
+@Label("Client Download")
+@Category({"Woodlanders", "Launcher"})
+@Description("Download of a client release into the client store")
+public class ClientDownloadEvent extends Event {
+    @Label("Release")
+    public String tagName;
+
+    @Label("Staged")
+    @Description("Downloaded in the background for the next start rather than activated")
+    public boolean staged;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Throughput")
+    @Description("Average rate of a full transfer; 0 for patched and entry-level updates")
+    @DataAmount
+    @Frequency
+    public long bytesPerSecond;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,30 @@
+package com.woodlanders.launcher.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Start of the game process. The duration is the spawn latency: building the command, choosing the
+ * JVM profile and starting the process, up to the point the launcher has its PID.
+ */
+@Name("com.woodlanders.launcher.ClientLaunch")
+@Label("Client Launch")
+@Category({"Woodlanders", "Launcher"})
+@Description("Spawn of the game process")
+public class ClientLaunchEvent extends Event {
+    @Label("Client SHA-256")
+    public String clientSha256;
+
+    @Label("JVM Profile")
+    public String profile;
+
+    @Label("Class Data Sharing")
+    @Description("off, training or archive")
+    public String classDataSharing;
+
+    @Label("PID")
+    public long pid;
+}
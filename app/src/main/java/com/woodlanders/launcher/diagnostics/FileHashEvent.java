@@ -0,0 +1,28 @@
+package com.woodlanders.launcher.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One pass of {@code Hashing} over a file, feeding one or more digests.
+ */
+@Name("com.woodlanders.launcher.FileHash")
+@Label("File Hash")
+@Category({"Woodlanders", "Launcher"})
+public class FileHashEvent extends Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Digests")
+    public int digests;
+
+    @Label("Memory Mapped")
+    public boolean mapped;
+}
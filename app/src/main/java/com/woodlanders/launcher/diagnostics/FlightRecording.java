@@ -0,0 +1,84 @@
+package com.woodlanders.launcher.diagnostics;
+
+import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.config.LauncherSettings;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Opt-in continuous JDK Flight Recorder recording of a launcher session, enabled with
+ * {@code -Dwoodlanders.jfr=true}. It uses the JDK's low-overhead {@code default} settings plus the
+ * launcher's own events, keeps at most the last hour on disk while running and is written to
+ * {@code recordings/launcher-<start>.jfr} in the config directory when the launcher exits, so a
+ * slow session can be opened in JDK Mission Control afterwards. Only the newest recordings are kept.
+ */
+public final class FlightRecording {
+    private static final Logger LOG = LoggerFactory.getLogger(FlightRecording.class);
+    private static final int RECORDINGS_KEPT = 10;
+    private static final Duration MAX_AGE = Duration.ofHours(1);
+    private static final long MAX_SIZE = 64L * 1024 * 1024;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Starts the recording when enabled in {@link LauncherSettings#flightRecording()}. Failures are
+     * logged; diagnostics must never stop the launcher from starting.
+     */
+    public static Optional<Recording> startIfEnabled() {
+        if (!LauncherSettings.flightRecording()) {
+            return Optional.empty();
+        }
+        Path directory = LauncherPaths.recordingsDirectory();
+        Path destination = directory.resolve("launcher-" + FILE_TIME.format(Instant.now()) + ".jfr");
+        try {
+            Files.createDirectories(directory);
+            pruneRecordings(directory);
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("woodlanders-launcher");
+            recording.setToDisk(true);
+            recording.setMaxAge(MAX_AGE);
+            recording.setMaxSize(MAX_SIZE);
+            recording.setDumpOnExit(true);
+            recording.setDestination(destination);
+            recording.start();
+            LOG.info("Flight recording started; it is written to {} on exit", destination);
+            return Optional.of(recording);
+        } catch (IOException | ParseException | RuntimeException e) {
+            LOG.warn("Failed to start the flight recording", e);
+            return Optional.empty();
+        }
+    }
+
+    private static void pruneRecordings(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "launcher-*.jfr")) {
+            entries.forEach(files::add);
+        }
+        if (files.size() < RECORDINGS_KEPT) {
+            return;
+        }
+        // File names start with the UTC start time, so they sort chronologically
+        files.sort(null);
+        for (Path old : files.subList(0, files.size() - RECORDINGS_KEPT + 1)) {
+            Files.deleteIfExists(old);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.woodlanders.launcher.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One call of {@code GithubReleaseService.fetchLatestRelease}, from the cache lookup to the parsed
+ * release. The duration is the latency the launcher waited for.
+ */
+@Name("com.woodlanders.launcher.ReleaseCheck")
+@Label("Release Check")
+@Category({"Woodlanders", "Launcher"})
+@Description("Latest release lookup against GitHub or the local release cache")
+public class ReleaseCheckEvent extends Event {
+    @Label("Status")
+    @Description("HTTP status, or 0 when answered from the cache or when the request failed")
+    public int status;
+
+    @Label("Cached")
+    @Description("Whether the cached release was used without a request")
+    public boolean cached;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytes;
+
+    @Label("Release")
+    public String tagName;
+}
@@ -0,0 +1,46 @@
+package com.woodlanders.launcher.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Read or write of one of {@code VersionService}'s JSON files.
+ */
+@Name("com.woodlanders.launcher.VersionFile")
+@Label("Version File")
+@Category({"Woodlanders", "Launcher"})
+public class VersionFileEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * Fills in the fields and commits, if the event is enabled and slow enough to be recorded.
+     */
+    public void commit(String operation, Path file) {
+        if (!shouldCommit()) {
+            return;
+        }
+        this.operation = operation;
+        this.path = file.toString();
+        try {
+            this.bytes = Files.size(file);
+        } catch (IOException e) {
+            this.bytes = -1;
+        }
+        commit();
+    }
+}
@@ -0,0 +1,28 @@
+package com.woodlanders.launcher.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count. Incrementing never allocates once the adder's cells exist, so counters can sit
+ * on download and hashing paths.
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        if (amount > 0) {
+            value.add(amount);
+        }
+    }
+
+    public long value() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,36 @@
+package com.woodlanders.launcher.metrics;
+
+/**
+ * One {@link Counter} per constant of an enum, exported as a single metric labelled with the
+ * constant's name. The counters are created up front, so counting by label is an array lookup.
+ */
+public final class EnumCounter<E extends Enum<E>> {
+    private final String label;
+    private final E[] constants;
+    private final Counter[] counters;
+
+    EnumCounter(String label, Class<E> type) {
+        this.label = label;
+        this.constants = type.getEnumConstants();
+        this.counters = new Counter[constants.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new Counter();
+        }
+    }
+
+    public void increment(E constant) {
+        counters[constant.ordinal()].increment();
+    }
+
+    public long value(E constant) {
+        return counters[constant.ordinal()].value();
+    }
+
+    String label() {
+        return label;
+    }
+
+    E[] constants() {
+        return constants;
+    }
+}
@@ -0,0 +1,59 @@
+package com.woodlanders.launcher.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Distribution over fixed, cumulative-on-export buckets in the style of Prometheus histograms.
+ * Observing finds the bucket by a linear scan over the few bounds and bumps one slot; nothing is
+ * allocated.
+ */
+public final class Histogram {
+    private final double[] upperBounds;
+    private final AtomicLongArray counts;
+    private final DoubleAdder sum = new DoubleAdder();
+
+    Histogram(double... upperBounds) {
+        this.upperBounds = upperBounds.clone();
+        Arrays.sort(this.upperBounds);
+        // The last slot is the implicit +Inf bucket
+        this.counts = new AtomicLongArray(this.upperBounds.length + 1);
+    }
+
+    public void observe(double value) {
+        int bucket = 0;
+        while (bucket < upperBounds.length && value > upperBounds[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        sum.add(value);
+    }
+
+    /**
+     * Records the time since {@code startNanos}, a {@link System#nanoTime()} reading, in seconds.
+     */
+    public void observeSince(long startNanos) {
+        observe((System.nanoTime() - startNanos) / 1e9);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public double sum() {
+        return sum.sum();
+    }
+
+    double[] upperBounds() {
+        return upperBounds;
+    }
+
+    long bucketCount(int bucket) {
+        return counts.get(bucket);
+    }
+}
@@ -0,0 +1,46 @@
+package com.woodlanders.launcher.metrics;
+
+import com.woodlanders.launcher.model.ClientSource;
+import com.woodlanders.launcher.model.LauncherState;
+
+/**
+ * The launcher's metrics, shared by the services that update them and the {@link MetricsExporter}.
+ * Services record into these; the package itself depends on nothing but the model.
+ */
+public final class LauncherMetrics {
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    public static final Histogram RELEASE_CHECK_SECONDS = REGISTRY.histogram(
+            "woodlanders_release_check_seconds",
+            "Latency of latest-release checks, including answers from the release cache",
+            0.005, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 20);
+    public static final Counter RELEASE_CHECK_FAILURES = REGISTRY.counter(
+            "woodlanders_release_check_failures_total",
+            "Latest-release checks that returned no release");
+    public static final Histogram DOWNLOAD_BYTES_PER_SECOND = REGISTRY.histogram(
+            "woodlanders_download_bytes_per_second",
+            "Average rate of full client downloads",
+            128 * 1024, 512 * 1024, 1024 * 1024, 4 * 1024 * 1024, 16 * 1024 * 1024,
+            64 * 1024 * 1024, 256 * 1024 * 1024);
+    public static final Counter DOWNLOADED_BYTES = REGISTRY.counter(
+            "woodlanders_download_bytes_total",
+            "Size of the client releases stored by downloads, patches and entry-level updates");
+    public static final Counter DOWNLOAD_FAILURES = REGISTRY.counter(
+            "woodlanders_download_failures_total",
+            "Client downloads that failed");
+    public static final EnumCounter<ClientSource> CLIENT_SOURCES = REGISTRY.counter(
+            "woodlanders_client_sources_total",
+            "Client versions installed or staged, by whether the client store already held them or how they were fetched",
+            "source", ClientSource.class);
+    public static final Histogram GAME_START_SECONDS = REGISTRY.histogram(
+            "woodlanders_game_start_seconds",
+            "Time from the launch request until the game process was started",
+            0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5);
+    public static final EnumCounter<LauncherState> FAILURES = REGISTRY.counter(
+            "woodlanders_failures_total",
+            "Failures shown to the player, by the state the launcher was in",
+            "state", LauncherState.class);
+
+    private LauncherMetrics() {
+    }
+}
@@ -0,0 +1,131 @@
+package com.woodlanders.launcher.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import com.woodlanders.launcher.config.LauncherSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a {@link MetricsRegistry} for fleet monitoring. The text exposition can be written to a
+ * file at a fixed interval and on close, e.g. into node_exporter's textfile collector directory,
+ * and served from {@code http://127.0.0.1:<port>/metrics}. Both are off unless configured, and
+ * neither is reachable from other machines.
+ */
+public final class MetricsExporter implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsExporter.class);
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+    private final HttpServer server;
+
+    private MetricsExporter(MetricsRegistry registry, Path file, Duration interval, int port) throws IOException {
+        this.registry = registry;
+        this.file = file;
+        if (file != null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "woodlanders-metrics");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::writeFile, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+        if (port > 0) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            LOG.info("Serving metrics on http://{}:{}/metrics", server.getAddress().getHostString(), port);
+        } else {
+            server = null;
+        }
+    }
+
+    /**
+     * Starts the exports configured through {@link LauncherSettings#metricsFile()} and
+     * {@link LauncherSettings#metricsPort()}; empty when neither is set or the endpoint cannot bind.
+     */
+    public static Optional<MetricsExporter> startIfEnabled(MetricsRegistry registry) {
+        Optional<Path> file = LauncherSettings.metricsFile();
+        int port = LauncherSettings.metricsPort();
+        if (file.isEmpty() && port <= 0) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new MetricsExporter(registry, file.orElse(null),
+                    LauncherSettings.metricsInterval(), port));
+        } catch (IOException e) {
+            LOG.warn("Failed to start the metrics endpoint on port {}", port, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the exposition to {@code file} through a temporary file, so a collector never reads a
+     * partial one.
+     */
+    public static void write(MetricsRegistry registry, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tempPath = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+            registry.writeTo(writer);
+        }
+        try {
+            Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Stops the endpoint and writes the file one last time.
+     */
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            writeFile();
+        }
+    }
+
+    private void writeFile() {
+        try {
+            write(registry, file);
+        } catch (IOException e) {
+            LOG.warn("Failed to write metrics to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.woodlanders.launcher.metrics;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Named set of metrics, exported in the Prometheus text exposition format. Metrics are registered
+ * once, usually as constants, and then updated without locks or allocation; only
+ * {@link #writeTo(Appendable)} does any real work.
+ */
+public final class MetricsRegistry {
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+
+    public Counter counter(String name, String help) {
+        Counter counter = new Counter();
+        register(name, help, "counter", counter);
+        return counter;
+    }
+
+    public <E extends Enum<E>> EnumCounter<E> counter(String name, String help, String label, Class<E> type) {
+        EnumCounter<E> counter = new EnumCounter<>(label, type);
+        register(name, help, "counter", counter);
+        return counter;
+    }
+
+    /**
+     * @param upperBounds inclusive bucket bounds; a {@code +Inf} bucket is always added
+     */
+    public Histogram histogram(String name, String help, double... upperBounds) {
+        Histogram histogram = new Histogram(upperBounds);
+        register(name, help, "histogram", histogram);
+        return histogram;
+    }
+
+    /**
+     * Writes every metric in registration order.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        for (Entry entry : entries) {
+            out.append("# HELP ").append(entry.name()).append(' ').append(escapeHelp(entry.help())).append('\n');
+            out.append("# TYPE ").append(entry.name()).append(' ').append(entry.type()).append('\n');
+            if (entry.metric() instanceof Counter counter) {
+                sample(out, entry.name(), "", counter.value());
+            } else if (entry.metric() instanceof EnumCounter<?> counter) {
+                writeEnumCounter(out, entry.name(), counter);
+            } else if (entry.metric() instanceof Histogram histogram) {
+                writeHistogram(out, entry.name(), histogram);
+            }
+        }
+    }
+
+    /**
+     * The exposition text of all metrics.
+     */
+    public String scrape() {
+        StringBuilder text = new StringBuilder(4096);
+        try {
+            writeTo(text);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringBuilder does not throw", e);
+        }
+        return text.toString();
+    }
+
+    private void register(String name, String help, String type, Object metric) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+        synchronized (entries) {
+            for (Entry entry : entries) {
+                if (entry.name().equals(name)) {
+                    throw new IllegalArgumentException("Metric already registered: " + name);
+                }
+            }
+            entries.add(new Entry(name, help, type, metric));
+        }
+    }
+
+    private static <E extends Enum<E>> void writeEnumCounter(Appendable out, String name, EnumCounter<E> counter)
+            throws IOException {
+        for (E constant : counter.constants()) {
+            String labels = "{" + counter.label() + "=\"" + constant.name().toLowerCase(Locale.ROOT) + "\"}";
+            sample(out, name, labels, counter.value(constant));
+        }
+    }
+
+    private static void writeHistogram(Appendable out, String name, Histogram histogram) throws IOException {
+        double[] bounds = histogram.upperBounds();
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += histogram.bucketCount(i);
+            sample(out, name + "_bucket", "{le=\"" + formatDouble(bounds[i]) + "\"}", cumulative);
+        }
+        cumulative += histogram.bucketCount(bounds.length);
+        sample(out, name + "_bucket", "{le=\"+Inf\"}", cumulative);
+        out.append(name).append("_sum ").append(formatDouble(histogram.sum())).append('\n');
+        sample(out, name + "_count", "", cumulative);
+    }
+
+    private static void sample(Appendable out, String name, String labels, long value) throws IOException {
+        out.append(name).append(labels).append(' ').append(Long.toString(value)).append('\n');
+    }
+
+    private static String formatDouble(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private record Entry(String name, String help, String type, Object metric) {
+    }
+}
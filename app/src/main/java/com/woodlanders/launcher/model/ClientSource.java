@@ -0,0 +1,15 @@
+package com.woodlanders.launcher.model;
+
+/**
+ * Where the bytes of an installed or staged client version came from.
+ */
+public enum ClientSource {
+    /** Already held in the client store; nothing was transferred. */
+    STORE,
+    /** Rebuilt from the active client and a binary patch. */
+    PATCH,
+    /** Rebuilt from the active client and the changed jar entries. */
+    ENTRY_DELTA,
+    /** Downloaded in full. */
+    DOWNLOAD
+}
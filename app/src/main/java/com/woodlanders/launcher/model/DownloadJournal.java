@@ -0,0 +1,27 @@
+package com.woodlanders.launcher.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Sidecar record of a partially downloaded client jar, used to resume the transfer later.
+ */
+public record DownloadJournal(
+        @JsonProperty("tag_name") String tagName,
+        @JsonProperty("etag") String etag,
+        @JsonProperty("total_size") long totalSize,
+        @JsonProperty("completed") List<ByteRange> completed
+) {
+    /**
+     * Half-open byte range {@code [start, end)} that is known to be on disk.
+     */
+    public record ByteRange(
+            @JsonProperty("start") long start,
+            @JsonProperty("end") long end
+    ) {
+        public long length() {
+            return end - start;
+        }
+    }
+}
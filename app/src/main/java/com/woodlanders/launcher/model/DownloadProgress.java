@@ -0,0 +1,38 @@
+package com.woodlanders.launcher.model;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Snapshot of a running download.
+ *
+ * @param transferredBytes bytes of the asset on disk, including any resumed from an earlier attempt
+ * @param totalBytes asset size, or {@code -1} when the server did not announce it
+ * @param bytesPerSecond rate since the previous snapshot
+ * @param smoothedBytesPerSecond exponentially smoothed rate, steadier for display and the ETA
+ * @param complete whether this is the final snapshot of the transfer
+ */
+public record DownloadProgress(long transferredBytes, long totalBytes, long bytesPerSecond,
+                               long smoothedBytesPerSecond, boolean complete) {
+
+    /**
+     * Fraction done between 0 and 1, or {@code -1} when the size is unknown.
+     */
+    public double fraction() {
+        return totalBytes > 0 ? Math.min(1.0, (double) transferredBytes / totalBytes) : -1;
+    }
+
+    /**
+     * Time left at the smoothed rate; empty while the size or the rate is unknown.
+     */
+    public Optional<Duration> eta() {
+        if (complete) {
+            return Optional.of(Duration.ZERO);
+        }
+        if (totalBytes <= 0 || smoothedBytesPerSecond <= 0) {
+            return Optional.empty();
+        }
+        long remaining = Math.max(0, totalBytes - transferredBytes);
+        return Optional.of(Duration.ofMillis(remaining * 1000 / smoothedBytesPerSecond));
+    }
+}
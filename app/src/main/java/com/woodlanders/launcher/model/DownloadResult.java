@@ -3,7 +3,12 @@ package com.woodlanders.launcher.model;
 import java.nio.file.Path;
 
 /**
- * Outcome of a download along with integrity metadata.
+ * Outcome of a download along with integrity metadata. {@code bytesPerSecond} is the average rate of
+ * the transfer, or {@code 0} when nothing was transferred in full, e.g. for a patched update.
  */
-public record DownloadResult(Path file, String sha256, long size) {
+public record DownloadResult(Path file, String sha256, long size, long bytesPerSecond) {
+
+    public DownloadResult(Path file, String sha256, long size) {
+        this(file, sha256, size, 0);
+    }
 }
@@ -0,0 +1,47 @@
+package com.woodlanders.launcher.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Named set of JVM options for the game process. {@code javaRuntime} is the {@code java} executable
+ * to run; heap sizes are in megabytes and zero leaves the JVM's default.
+ */
+public record JvmProfile(
+        @JsonProperty("name") String name,
+        @JsonProperty("java_runtime") String javaRuntime,
+        @JsonProperty("min_heap_mb") long minHeapMegabytes,
+        @JsonProperty("max_heap_mb") long maxHeapMegabytes,
+        @JsonProperty("gc") GarbageCollector garbageCollector,
+        @JsonProperty("always_pre_touch") boolean alwaysPreTouch,
+        @JsonProperty("large_pages") boolean largePages,
+        @JsonProperty("extra_args") List<String> extraArgs
+) {
+    public JvmProfile {
+        garbageCollector = garbageCollector == null ? GarbageCollector.DEFAULT : garbageCollector;
+        extraArgs = extraArgs == null ? List.of() : List.copyOf(extraArgs);
+    }
+
+    /**
+     * Collector selection; {@code DEFAULT} passes no flag and lets the runtime choose.
+     */
+    public enum GarbageCollector {
+        DEFAULT(List.of()),
+        G1(List.of("-XX:+UseG1GC")),
+        ZGC(List.of("-XX:+UseZGC")),
+        SHENANDOAH(List.of("-XX:+UseShenandoahGC")),
+        PARALLEL(List.of("-XX:+UseParallelGC")),
+        SERIAL(List.of("-XX:+UseSerialGC"));
+
+        private final List<String> options;
+
+        GarbageCollector(List<String> options) {
+            this.options = options;
+        }
+
+        public List<String> options() {
+            return options;
+        }
+    }
+}
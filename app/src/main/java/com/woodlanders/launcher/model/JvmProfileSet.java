@@ -0,0 +1,24 @@
+package com.woodlanders.launcher.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Contents of {@code jvm-profiles.json}: every profile the player can choose from and the selected one.
+ */
+public record JvmProfileSet(
+        @JsonProperty("selected") String selected,
+        @JsonProperty("profiles") List<JvmProfile> profiles
+) {
+    public JvmProfileSet {
+        profiles = profiles == null ? List.of() : List.copyOf(profiles);
+    }
+
+    public Optional<JvmProfile> find(String name) {
+        // Hand-edited files may leave a profile without a name
+        return profiles.stream().filter(profile -> Objects.equals(profile.name(), name)).findFirst();
+    }
+}
@@ -0,0 +1,18 @@
+package com.woodlanders.launcher.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One game start as written to the launch history: which client ran, with which profile and command.
+ */
+public record LaunchRecord(
+        @JsonProperty("launched_at") Instant launchedAt,
+        @JsonProperty("client_sha256") String clientSha256,
+        @JsonProperty("profile") String profile,
+        @JsonProperty("pid") long pid,
+        @JsonProperty("command") List<String> command
+) {
+}
@@ -0,0 +1,19 @@
+package com.woodlanders.launcher.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * Last successful answer from the GitHub releases endpoint together with its HTTP validators.
+ */
+public record ReleaseCacheEntry(
+        @JsonProperty("etag") String etag,
+        @JsonProperty("last_modified") String lastModified,
+        @JsonProperty("checked_at") Instant checkedAt,
+        @JsonProperty("release") ReleaseInfo release
+) {
+    public ReleaseCacheEntry withCheckedAt(Instant newCheckedAt) {
+        return new ReleaseCacheEntry(etag, lastModified, newCheckedAt, release);
+    }
+}
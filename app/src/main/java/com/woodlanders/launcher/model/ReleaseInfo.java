@@ -1,9 +1,31 @@
 package com.woodlanders.launcher.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.net.URI;
+import java.util.List;
+import java.util.Optional;
 
 /**
- * Minimal data extracted from GitHub for the latest release.
+ * Minimal data extracted from GitHub for the latest release. {@code sha256} comes from the asset
+ * digest when GitHub publishes one and is {@code null} otherwise.
  */
-public record ReleaseInfo(String tagName, URI downloadUrl, long assetSize) {
+public record ReleaseInfo(
+        @JsonProperty("tag_name") String tagName,
+        @JsonProperty("download_url") URI downloadUrl,
+        @JsonProperty("asset_size") long assetSize,
+        @JsonProperty("sha256") String sha256,
+        @JsonProperty("patches") List<ReleasePatch> patches
+) {
+    public ReleaseInfo {
+        patches = patches == null ? List.of() : List.copyOf(patches);
+    }
+
+    public ReleaseInfo(String tagName, URI downloadUrl, long assetSize) {
+        this(tagName, downloadUrl, assetSize, null, List.of());
+    }
+
+    public Optional<ReleasePatch> patchFrom(String baseSha256) {
+        return patches.stream().filter(patch -> patch.appliesTo(baseSha256)).findFirst();
+    }
 }
@@ -0,0 +1,21 @@
+package com.woodlanders.launcher.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Binary patch published alongside a release that rebuilds its client jar from an older one.
+ * {@code baseSha256} may be a hex prefix of the full hash, as carried in the asset name.
+ */
+public record ReleasePatch(
+        @JsonProperty("base_sha256") String baseSha256,
+        @JsonProperty("download_url") URI downloadUrl,
+        @JsonProperty("asset_size") long assetSize
+) {
+    public boolean appliesTo(String sha256) {
+        return sha256 != null && baseSha256 != null && !baseSha256.isEmpty()
+                && sha256.toLowerCase(Locale.ROOT).startsWith(baseSha256.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,67 @@
+package com.woodlanders.launcher.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Resource use of one game session. The record is written with status {@code RUNNING} when the game
+ * starts and completed when it exits. Memory figures are resident set sizes in kilobytes and are
+ * {@code -1} where the platform does not expose them; the exit code is {@code null} when the launcher
+ * that started the game was gone before it exited, since only the parent process can read it.
+ */
+public record SessionMetrics(
+        @JsonProperty("status") Status status,
+        @JsonProperty("version") String version,
+        @JsonProperty("client_sha256") String clientSha256,
+        @JsonProperty("profile") String profile,
+        @JsonProperty("pid") long pid,
+        @JsonProperty("started_at") Instant startedAt,
+        @JsonProperty("ended_at") Instant endedAt,
+        @JsonProperty("exit_code") Integer exitCode,
+        @JsonProperty("duration_ms") long durationMillis,
+        @JsonProperty("cpu_ms") long cpuMillis,
+        @JsonProperty("peak_rss_kb") long peakRssKilobytes,
+        @JsonProperty("average_rss_kb") long averageRssKilobytes,
+        @JsonProperty("peak_threads") int peakThreads,
+        @JsonProperty("samples") List<Sample> samples
+) {
+    public SessionMetrics {
+        // Sessions recorded before the status existed were only ever written on exit
+        status = status == null ? Status.EXITED : status;
+        samples = samples == null ? List.of() : List.copyOf(samples);
+    }
+
+    /**
+     * Whether the session ended with a non-zero exit code; an unknown code does not count.
+     */
+    public boolean failed() {
+        return exitCode != null && exitCode != 0;
+    }
+
+    /**
+     * {@code LOST} marks a game that had already exited, unobserved, when a later launcher run found
+     * its record still {@code RUNNING}; only its start is known.
+     */
+    public enum Status {
+        RUNNING,
+        EXITED,
+        LOST
+    }
+
+    /**
+     * One measurement, stored as {@code [offset_ms, cpu_ms, rss_kb, threads]} to keep session files small.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"offset_ms", "cpu_ms", "rss_kb", "threads"})
+    public record Sample(
+            @JsonProperty("offset_ms") long offsetMillis,
+            @JsonProperty("cpu_ms") long cpuMillis,
+            @JsonProperty("rss_kb") long rssKilobytes,
+            @JsonProperty("threads") int threads
+    ) {
+    }
+}
@@ -5,12 +5,18 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
 
 /**
- * Represents the locally cached metadata that tracks the downloaded client.
+ * Represents the locally cached metadata that tracks the downloaded client. The download rate is
+ * {@code 0} for versions that were not fully downloaded or were recorded by older launchers.
  */
 public record VersionMetadata(
         @JsonProperty("version") String version,
         @JsonProperty("sha256") String sha256,
         @JsonProperty("downloaded_at") Instant downloadedAt,
-        @JsonProperty("asset_size") long assetSize
+        @JsonProperty("asset_size") long assetSize,
+        @JsonProperty("download_bytes_per_second") long downloadBytesPerSecond
 ) {
+
+    public VersionMetadata(String version, String sha256, Instant downloadedAt, long assetSize) {
+        this(version, sha256, downloadedAt, assetSize, 0);
+    }
 }
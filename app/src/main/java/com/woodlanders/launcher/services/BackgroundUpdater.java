@@ -0,0 +1,98 @@
+package com.woodlanders.launcher.services;
+
+import com.woodlanders.launcher.model.ReleaseInfo;
+import com.woodlanders.launcher.model.VersionMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Periodically asks GitHub for the latest release and stages anything new through
+ * {@link UpdateService#stage(ReleaseInfo)}, so an update is already on disk by the time the player
+ * next launches. Checks run on a single minimum-priority daemon thread; the {@link UpdateService}
+ * given here is expected to download with a capped {@link BandwidthLimiter}.
+ */
+public class BackgroundUpdater implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(BackgroundUpdater.class);
+
+    private final GithubReleaseService githubService;
+    private final UpdateService stagingService;
+    private final VersionService versionService;
+    private final Duration interval;
+    private final Consumer<VersionMetadata> onStaged;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "woodlanders-background-updater");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * @param interval time between checks; zero only runs the checks requested through {@link #start(boolean)}
+     * @param onStaged called on the updater thread after a release has been staged
+     */
+    public BackgroundUpdater(GithubReleaseService githubService, UpdateService stagingService,
+                             VersionService versionService, Duration interval, Consumer<VersionMetadata> onStaged) {
+        this.githubService = githubService;
+        this.stagingService = stagingService;
+        this.versionService = versionService;
+        this.interval = interval;
+        this.onStaged = onStaged;
+    }
+
+    /**
+     * Schedules the periodic checks, the first one right away when {@code checkNow} is set.
+     */
+    public void start(boolean checkNow) {
+        if (checkNow) {
+            scheduler.execute(this::runCheck);
+        }
+        if (!interval.isZero() && !interval.isNegative()) {
+            scheduler.scheduleWithFixedDelay(this::runCheck, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stages the latest release unless it is already active or pending.
+     *
+     * @return the newly staged version, or empty when there was nothing to do
+     */
+    public Optional<VersionMetadata> checkNow() throws IOException, InterruptedException {
+        Optional<ReleaseInfo> latest = githubService.fetchLatestRelease();
+        if (latest.isEmpty() || isCurrent(latest.get().tagName())) {
+            return Optional.empty();
+        }
+        VersionMetadata staged = stagingService.stage(latest.get());
+        onStaged.accept(staged);
+        return Optional.of(staged);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private boolean isCurrent(String tagName) {
+        return versionService.readMetadata().map(meta -> meta.version().equals(tagName)).orElse(false)
+                || versionService.readPending().map(meta -> meta.version().equals(tagName)).orElse(false);
+    }
+
+    private void runCheck() {
+        try {
+            checkNow();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Background update failed; retrying at the next check", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.debug("Background update interrupted");
+        }
+    }
+}
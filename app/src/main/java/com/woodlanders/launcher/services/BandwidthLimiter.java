@@ -0,0 +1,56 @@
+package com.woodlanders.launcher.services;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by every connection of a download, so background transfers leave bandwidth
+ * for the game. Subscribers {@linkplain #reserve(long) reserve} what they have just received and
+ * delay their next demand by the returned time; the HTTP client then stops reading and TCP flow
+ * control slows the sender down, without a thread ever sleeping.
+ */
+public final class BandwidthLimiter {
+    private static final BandwidthLimiter UNLIMITED = new BandwidthLimiter(0);
+    private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final long bytesPerSecond;
+    private long nextFreeNanos;
+
+    private BandwidthLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.nextFreeNanos = System.nanoTime() - BURST_NANOS;
+    }
+
+    public static BandwidthLimiter unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Limits transfers to {@code bytesPerSecond} on average; zero or less means unlimited.
+     */
+    public static BandwidthLimiter of(long bytesPerSecond) {
+        return bytesPerSecond > 0 ? new BandwidthLimiter(bytesPerSecond) : UNLIMITED;
+    }
+
+    public boolean isUnlimited() {
+        return bytesPerSecond <= 0;
+    }
+
+    /**
+     * Accounts for {@code bytes} just transferred and returns how long the caller should pause
+     * before asking for more. Short bursts within a quarter second of the budget are not delayed.
+     */
+    public Duration reserve(long bytes) {
+        if (isUnlimited() || bytes <= 0) {
+            return Duration.ZERO;
+        }
+        long cost = TimeUnit.SECONDS.toNanos(bytes) / bytesPerSecond;
+        long now = System.nanoTime();
+        long wait;
+        synchronized (this) {
+            nextFreeNanos = Math.max(nextFreeNanos, now - BURST_NANOS) + cost;
+            wait = nextFreeNanos - now;
+        }
+        return wait > 0 ? Duration.ofNanos(wait) : Duration.ZERO;
+    }
+}
@@ -0,0 +1,307 @@
+package com.woodlanders.launcher.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Keeps one cache directory under a byte quota. Last access times live in a small
+ * {@code .access-index} file beside the artifacts, because file systems mounted with
+ * {@code noatime} do not maintain them; artifacts the index does not know yet fall back to their
+ * modification time. When the directory exceeds its quota the least recently used artifacts are
+ * deleted first, each under its {@link DownloadLock} so a download in progress is never removed, and
+ * together with its lock sidecar.
+ *
+ * <p>Partial downloads ({@code .part} files and their {@code .part.json} journals) count towards the
+ * quota but are never evicted by age of use; they are deleted once nothing has written to them for
+ * {@link #PARTIAL_MAX_AGE}. Hidden files and {@code .lock} and {@code .tmp} files are bookkeeping and
+ * are never counted or evicted.
+ */
+public class CacheManager {
+    private static final Logger LOG = LoggerFactory.getLogger(CacheManager.class);
+    static final String INDEX_NAME = ".access-index";
+    /**
+     * How long a partial download may go without being resumed before it is considered abandoned.
+     */
+    public static final Duration PARTIAL_MAX_AGE = Duration.ofDays(7);
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final String JOURNAL_SUFFIX = ".part.json";
+    private static final List<String> BOOKKEEPING_SUFFIXES = List.of(".lock", ".tmp");
+
+    private final Path directory;
+    private final long quotaBytes;
+
+    public CacheManager(Path directory, long quotaBytes) {
+        this.directory = directory;
+        this.quotaBytes = quotaBytes;
+    }
+
+    /**
+     * Records that {@code artifact} was just used. Failures are logged and ignored.
+     */
+    public void touch(Path artifact) {
+        String name = artifact.getFileName().toString();
+        try {
+            synchronized (CacheManager.class) {
+                Properties index = loadIndex();
+                index.setProperty(name, Long.toString(Instant.now().toEpochMilli()));
+                storeIndex(index);
+            }
+        } catch (IOException e) {
+            LOG.debug("Failed to record access to {}", artifact, e);
+        }
+    }
+
+    /**
+     * Deletes abandoned partial downloads, then least recently used artifacts until the directory fits
+     * its quota. Artifacts matching {@code pinned} are kept regardless of age.
+     *
+     * @return the artifacts that were deleted, oldest first
+     */
+    public List<Path> enforceQuota(Predicate<Path> pinned) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        collectStalePartials(directory, PARTIAL_MAX_AGE);
+        List<Artifact> artifacts = new ArrayList<>();
+        long total = 0;
+        synchronized (CacheManager.class) {
+            Properties index = loadIndex();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, CacheManager::isCounted)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    if (!attributes.isRegularFile()) {
+                        continue;
+                    }
+                    total += attributes.size();
+                    if (isPartial(entry)) {
+                        continue;
+                    }
+                    String recorded = index.getProperty(entry.getFileName().toString());
+                    long lastUsed = recorded != null
+                            ? parseOr(recorded, attributes.lastModifiedTime().toMillis())
+                            : attributes.lastModifiedTime().toMillis();
+                    artifacts.add(new Artifact(entry, attributes.size(), lastUsed));
+                }
+            }
+        }
+        if (total <= quotaBytes) {
+            return List.of();
+        }
+        artifacts.sort(Comparator.comparingLong(Artifact::lastUsed));
+        List<Path> evicted = new ArrayList<>();
+        for (Artifact artifact : artifacts) {
+            if (total <= quotaBytes) {
+                break;
+            }
+            if (pinned.test(artifact.path())) {
+                continue;
+            }
+            DownloadLock lock = DownloadLock.acquire(artifact.path());
+            try {
+                if (Files.deleteIfExists(artifact.path())) {
+                    total -= artifact.size();
+                    evicted.add(artifact.path());
+                }
+                lock.deleteSidecar();
+            } finally {
+                lock.close();
+            }
+        }
+        if (!evicted.isEmpty()) {
+            forget(evicted);
+            LOG.info("Evicted {} least recently used file(s) from {}; {} bytes remain", evicted.size(), directory, total);
+        }
+        return evicted;
+    }
+
+    /**
+     * Deletes files in {@code directory} whose names match {@code glob} and that have not been
+     * modified for {@code minimumAge}, such as temporary files left behind by a crash. The age limit
+     * keeps files that another launcher instance is still writing.
+     *
+     * @return the number of files deleted
+     */
+    public static int collectOrphans(Path directory, String glob, Duration minimumAge) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(minimumAge);
+        int deleted = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, glob)) {
+            for (Path entry : entries) {
+                try {
+                    if (Files.getLastModifiedTime(entry).toInstant().isBefore(cutoff) && Files.deleteIfExists(entry)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    LOG.debug("Failed to delete orphaned file {}", entry, e);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to scan {} for orphaned files", directory, e);
+        }
+        if (deleted > 0) {
+            LOG.info("Deleted {} orphaned file(s) matching {} in {}", deleted, glob, directory);
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the partial downloads in {@code directory} that nothing has written to for
+     * {@code maximumAge}, such as the download of a release that was superseded before it finished.
+     * A {@code .part} file goes together with its {@code .part.json} journal and lock sidecar, under
+     * its {@link DownloadLock}, so a download that resumes it in the meantime keeps it.
+     *
+     * @return the number of partial downloads deleted
+     */
+    public static int collectStalePartials(Path directory, Duration maximumAge) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(maximumAge);
+        Set<Path> partials = new LinkedHashSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, CacheManager::isPartial)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                partials.add(name.endsWith(JOURNAL_SUFFIX)
+                        ? entry.resolveSibling(name.substring(0, name.length() - JOURNAL_SUFFIX.length()) + PARTIAL_SUFFIX)
+                        : entry);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to scan {} for partial downloads", directory, e);
+            return 0;
+        }
+        int deleted = 0;
+        for (Path partial : partials) {
+            try {
+                if (isStale(partial, cutoff) && deleteStalePartial(partial, cutoff)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                LOG.debug("Failed to delete partial download {}", partial, e);
+            }
+        }
+        if (deleted > 0) {
+            LOG.info("Deleted {} abandoned partial download(s) in {}", deleted, directory);
+        }
+        return deleted;
+    }
+
+    private static boolean deleteStalePartial(Path partial, Instant cutoff) throws IOException {
+        DownloadLock lock = DownloadLock.acquire(partial);
+        try {
+            // A download may have resumed or completed it while this waited for the lock
+            if (!isStale(partial, cutoff)) {
+                return false;
+            }
+            Files.deleteIfExists(journalOf(partial));
+            Files.deleteIfExists(partial);
+            lock.deleteSidecar();
+            return true;
+        } finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * True when the partial download and its journal exist in some form and neither was modified
+     * after {@code cutoff}.
+     */
+    private static boolean isStale(Path partial, Instant cutoff) throws IOException {
+        boolean found = false;
+        for (Path file : List.of(partial, journalOf(partial))) {
+            try {
+                if (!Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    return false;
+                }
+                found = true;
+            } catch (NoSuchFileException e) {
+                // only one of the pair was left behind
+            }
+        }
+        return found;
+    }
+
+    private static Path journalOf(Path partial) {
+        return partial.resolveSibling(partial.getFileName() + ".json");
+    }
+
+    private void forget(List<Path> evicted) {
+        try {
+            synchronized (CacheManager.class) {
+                Properties index = loadIndex();
+                for (Path path : evicted) {
+                    index.remove(path.getFileName().toString());
+                }
+                storeIndex(index);
+            }
+        } catch (IOException e) {
+            LOG.debug("Failed to update access index in {}", directory, e);
+        }
+    }
+
+    private Properties loadIndex() throws IOException {
+        Properties index = new Properties();
+        try (InputStream in = Files.newInputStream(directory.resolve(INDEX_NAME))) {
+            index.load(in);
+        } catch (NoSuchFileException e) {
+            // nothing recorded yet
+        }
+        return index;
+    }
+
+    private void storeIndex(Properties index) throws IOException {
+        Files.createDirectories(directory);
+        Path indexPath = directory.resolve(INDEX_NAME);
+        Path temp = directory.resolve(INDEX_NAME + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            index.store(out, "Last access per cached file (epoch milliseconds)");
+        }
+        try {
+            Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean isCounted(Path entry) {
+        String name = entry.getFileName().toString();
+        return !name.startsWith(".") && BOOKKEEPING_SUFFIXES.stream().noneMatch(name::endsWith);
+    }
+
+    private static boolean isPartial(Path entry) {
+        String name = entry.getFileName().toString();
+        return name.endsWith(PARTIAL_SUFFIX) || name.endsWith(JOURNAL_SUFFIX);
+    }
+
+    private static long parseOr(String value, long fallback) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private record Artifact(Path path, long size, long lastUsed) {
+    }
+}
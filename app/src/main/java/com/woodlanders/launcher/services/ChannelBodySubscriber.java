@@ -0,0 +1,86 @@
+package com.woodlanders.launcher.services;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a response body into a shared {@link FileChannel} starting at a fixed offset, so several
+ * range responses can fill the same file concurrently. Every write is reported to the shared
+ * {@link TransferState}; the body value is the number of bytes written. Demand for the next buffer
+ * is deferred as long as the {@link BandwidthLimiter} asks.
+ */
+final class ChannelBodySubscriber implements HttpResponse.BodySubscriber<Long> {
+    private final FileChannel channel;
+    private final long startOffset;
+    private final TransferState state;
+    private final BandwidthLimiter limiter;
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private long position;
+
+    ChannelBodySubscriber(FileChannel channel, long startOffset, TransferState state, BandwidthLimiter limiter) {
+        this.channel = channel;
+        this.startOffset = startOffset;
+        this.state = state;
+        this.limiter = limiter;
+        this.position = startOffset;
+    }
+
+    @Override
+    public CompletionStage<Long> getBody() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        try {
+            long received = position;
+            for (ByteBuffer buffer : items) {
+                long bufferStart = position;
+                ByteBuffer written = buffer.duplicate();
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                state.recordWritten(bufferStart, written);
+            }
+            Duration pause = limiter.reserve(position - received);
+            if (pause.isZero()) {
+                subscription.request(1);
+            } else {
+                CompletableFuture.delayedExecutor(pause.toNanos(), TimeUnit.NANOSECONDS)
+                        .execute(() -> subscription.request(1));
+            }
+        } catch (IOException e) {
+            subscription.cancel();
+            result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        result.complete(position - startOffset);
+    }
+}
@@ -0,0 +1,229 @@
+package com.woodlanders.launcher.services;
+
+import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.util.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Content-addressed store of client jars keyed by SHA-256. Every version the launcher has downloaded
+ * stays in the store, and the active client at {@link LauncherPaths#clientJarPath()} is a symbolic
+ * link to one of the entries, so switching between versions already held is a single atomic rename.
+ * Where symbolic links are unavailable (e.g. Windows without developer mode) the active path becomes
+ * a hard link, and only as a last resort a copy.
+ *
+ * <p>The store is bounded by {@link LauncherSettings#clientCacheQuotaBytes()}; see
+ * {@link #evictLeastRecentlyUsed(String...)}.
+ */
+public class ClientStore {
+    private static final Logger LOG = LoggerFactory.getLogger(ClientStore.class);
+    private static final String BLOB_SUFFIX = ".jar";
+    private static final String ARCHIVE_SUFFIX = ".jsa";
+
+    private final Path storeDirectory;
+    private final Path activePath;
+    private final CacheManager cacheManager;
+
+    public ClientStore() {
+        this(LauncherPaths.clientStoreDirectory(), LauncherPaths.clientJarPath());
+    }
+
+    public ClientStore(Path storeDirectory, Path activePath) {
+        this(storeDirectory, activePath, LauncherSettings.clientCacheQuotaBytes());
+    }
+
+    public ClientStore(Path storeDirectory, Path activePath, long quotaBytes) {
+        this.storeDirectory = storeDirectory;
+        this.activePath = activePath;
+        this.cacheManager = new CacheManager(storeDirectory, quotaBytes);
+    }
+
+    public Path blobPath(String sha256) {
+        return storeDirectory.resolve(sha256.toLowerCase(Locale.ROOT) + BLOB_SUFFIX);
+    }
+
+    /**
+     * Class data sharing archive dumped by the first run of the stored jar on the runtime identified by
+     * {@code runtimeKey}; see {@link GameLaunchService}. A JVM only accepts archives it dumped itself,
+     * so a new client version or a different runtime never picks up a stale archive.
+     */
+    public Path archivePath(String sha256, String runtimeKey) {
+        return storeDirectory.resolve(sha256.toLowerCase(Locale.ROOT) + "-" + runtimeKey + ARCHIVE_SUFFIX);
+    }
+
+    public boolean contains(String sha256) {
+        return sha256 != null && Files.isRegularFile(blobPath(sha256));
+    }
+
+    /**
+     * Moves an already verified file into the store under its hash. When the store holds that content
+     * already, the incoming file is discarded instead.
+     */
+    public Path put(Path file, String sha256) throws IOException {
+        Files.createDirectories(storeDirectory);
+        Path blob = blobPath(sha256);
+        if (Files.isRegularFile(blob)) {
+            LOG.debug("Store already holds {}; discarding {}", sha256, file);
+            Files.deleteIfExists(file);
+            cacheManager.touch(blob);
+            return blob;
+        }
+        replace(file, blob);
+        cacheManager.touch(blob);
+        return blob;
+    }
+
+    /**
+     * Makes the stored jar with the given hash the active client. The new pointer is prepared under a
+     * sibling name and renamed over the active path, so a launch never observes a half-switched client.
+     */
+    public Path activate(String sha256) throws IOException {
+        Path blob = blobPath(sha256);
+        if (!Files.isRegularFile(blob)) {
+            throw new IOException("No stored client with SHA-256 " + sha256);
+        }
+        Path staging = activePath.resolveSibling(activePath.getFileName() + ".next");
+        Files.deleteIfExists(staging);
+        linkOrCopy(blob, staging);
+        replace(staging, activePath);
+        cacheManager.touch(blob);
+        LOG.info("Activated client {} at {}", sha256, activePath);
+        return activePath;
+    }
+
+    /**
+     * Deletes the least recently used stored versions until the store fits its quota. The entries
+     * {@code keepSha256} (normally the active client and any running ones) and the current link target
+     * are never evicted, and neither are their class data archives. An evicted jar takes its archive
+     * with it.
+     *
+     * @return hashes of the evicted versions
+     */
+    public List<String> evictLeastRecentlyUsed(String... keepSha256) throws IOException {
+        Set<String> pinned = new HashSet<>();
+        activeHash().map(sha256 -> sha256.toLowerCase(Locale.ROOT)).ifPresent(pinned::add);
+        for (String sha256 : keepSha256) {
+            if (sha256 != null) {
+                pinned.add(sha256.toLowerCase(Locale.ROOT));
+            }
+        }
+        List<String> evicted = new ArrayList<>();
+        for (Path blob : cacheManager.enforceQuota(path -> pinned.contains(contentHash(path)))) {
+            String name = blob.getFileName().toString();
+            if (name.endsWith(BLOB_SUFFIX)) {
+                String sha256 = name.substring(0, name.length() - BLOB_SUFFIX.length());
+                deleteArchives(sha256);
+                evicted.add(sha256);
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the hash of the active client when it is a symbolic link into the store.
+     */
+    public Optional<String> activeHash() {
+        if (!Files.isSymbolicLink(activePath)) {
+            return Optional.empty();
+        }
+        try {
+            String name = Files.readSymbolicLink(activePath).getFileName().toString();
+            return name.endsWith(BLOB_SUFFIX)
+                    ? Optional.of(name.substring(0, name.length() - BLOB_SUFFIX.length()))
+                    : Optional.empty();
+        } catch (IOException e) {
+            LOG.warn("Failed to read active client link {}", activePath, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Brings a client jar written by an older launcher (a plain file at the active path) into the store.
+     * The file is hashed first and only adopted when it matches the expected hash.
+     */
+    public boolean adoptActive(String expectedSha256) throws IOException {
+        if (contains(expectedSha256)) {
+            return true;
+        }
+        if (!Files.isRegularFile(activePath, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        String actual = Hashing.sha256(activePath);
+        if (!actual.equalsIgnoreCase(expectedSha256)) {
+            LOG.warn("Not adopting {}: expected SHA-256 {} but found {}", activePath, expectedSha256, actual);
+            return false;
+        }
+        Files.createDirectories(storeDirectory);
+        Path staging = blobPath(actual).resolveSibling(actual + ".adopt");
+        Files.deleteIfExists(staging);
+        linkOrCopy(activePath, staging, false);
+        replace(staging, blobPath(actual));
+        activate(actual);
+        return true;
+    }
+
+    private void deleteArchives(String sha256) throws IOException {
+        try (DirectoryStream<Path> archives = Files.newDirectoryStream(storeDirectory,
+                sha256 + "-*" + ARCHIVE_SUFFIX + "*")) {
+            for (Path archive : archives) {
+                Files.deleteIfExists(archive);
+            }
+        }
+    }
+
+    /**
+     * The hash a stored file belongs to: the whole name of a jar, the part before the runtime key of
+     * an archive.
+     */
+    private static String contentHash(Path file) {
+        String name = file.getFileName().toString();
+        int end = name.indexOf('-');
+        return end >= 0 ? name.substring(0, end) : name.substring(0, Math.max(0, name.indexOf('.')));
+    }
+
+    private void linkOrCopy(Path blob, Path link) throws IOException {
+        linkOrCopy(blob, link, true);
+    }
+
+    private void linkOrCopy(Path target, Path link, boolean allowSymlink) throws IOException {
+        if (allowSymlink) {
+            try {
+                Files.createSymbolicLink(link, link.getParent().relativize(target));
+                return;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                LOG.debug("Symbolic links unavailable, trying a hard link", e);
+            }
+        }
+        try {
+            Files.createLink(link, target);
+            return;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            LOG.debug("Hard links unavailable, copying {}", target, e);
+        }
+        Files.copy(target, link, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void replace(Path source, Path destination) throws IOException {
+        try {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -1,21 +1,50 @@
 package com.woodlanders.launcher.services;
 
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.util.Hashing;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Optional;
 
 /**
- * Service for downloading and caching files with checksum verification.
- * Used by Gradle build tasks for downloading JDK and JavaFX.
+ * Service for downloading and caching files with checksum verification, for build tooling that
+ * fetches large archives such as JDK and JavaFX distributions. The launcher itself fetches clients
+ * through {@link DownloadService}, and {@code app/build.gradle}, which cannot load the application's
+ * own classes, applies the same locking and verify-then-move scheme in its {@code downloadVerified}
+ * helper and fetches the macOS archives concurrently through {@code downloadVerifiedAll}.
+ * 
+ * A file that was verified before is not re-hashed while its size, modification time and
+ * file key are unchanged, unless the service runs in paranoid mode.
  */
 public class DownloadCacheService {
     
+    private final VerifiedHashCache verifiedHashes = new VerifiedHashCache();
+    private final boolean paranoid;
+    
+    public DownloadCacheService() {
+        this(LauncherSettings.paranoidVerification());
+    }
+    
+    /**
+     * @param paranoid true to fully re-hash cached files on every check
+     */
+    public DownloadCacheService(boolean paranoid) {
+        this.paranoid = paranoid;
+    }
+    
     /**
      * Result of a download operation.
      */
@@ -38,7 +67,7 @@ public class DownloadCacheService {
         }
         
         try {
-            String actualChecksum = calculateSha256(file);
+            String actualChecksum = cachedSha256(file);
             return actualChecksum.equals(expectedSha256);
         } catch (Exception e) {
             return false;
@@ -48,6 +77,10 @@ public class DownloadCacheService {
     /**
      * Downloads a file if not cached or if checksum doesn't match.
      * 
+     * Callers in other threads or processes that ask for the same destination wait for the one
+     * download in progress and then find the file cached. The file is downloaded next to the
+     * destination and moved into place only once verified, so readers never see partial content.
+     * 
      * @param url The URL to download from
      * @param destination The destination file
      * @param expectedSha256 The expected SHA256 checksum
@@ -55,68 +88,131 @@ public class DownloadCacheService {
      * @throws IOException if download fails
      */
     public DownloadResult downloadIfNeeded(String url, File destination, String expectedSha256) throws IOException {
-        // Check if already cached with correct checksum
-        if (destination.exists()) {
-            try {
-                String actualChecksum = calculateSha256(destination);
-                if (actualChecksum.equals(expectedSha256)) {
-                    return DownloadResult.CACHED;
-                } else {
-                    // Checksum mismatch, delete and re-download
-                    destination.delete();
-                    download(url, destination);
-                    verifyChecksum(destination, expectedSha256);
-                    return DownloadResult.CHECKSUM_MISMATCH;
+        DownloadLock lock = DownloadLock.acquire(destination.toPath());
+        try {
+            // Check if already cached with correct checksum, possibly by whoever held the lock before us
+            DownloadResult result = DownloadResult.DOWNLOADED;
+            if (destination.exists()) {
+                try {
+                    if (cachedSha256(destination).equals(expectedSha256)) {
+                        touch(destination);
+                        return DownloadResult.CACHED;
+                    }
+                    // Checksum mismatch, replace it with a fresh download
+                    result = DownloadResult.CHECKSUM_MISMATCH;
+                } catch (Exception e) {
+                    // If checksum calculation fails, re-download
                 }
-            } catch (Exception e) {
-                // If checksum calculation fails, re-download
-                destination.delete();
+                verifiedHashes.forget(destination.toPath());
             }
+            
+            // Download the file
+            downloadVerified(url, destination, expectedSha256);
+            touch(destination);
+            return result;
+        } finally {
+            lock.close();
         }
+    }
+    
+    /**
+     * Deletes the least recently used files in a cache directory until it holds at most
+     * {@code maxBytes}. Recency comes from this service's downloads and cache hits.
+     * 
+     * @param directory The cache directory to prune
+     * @param maxBytes The size the directory may keep
+     * @return The files that were deleted, oldest first
+     * @throws IOException if the directory cannot be read
+     */
+    public List<Path> enforceQuota(File directory, long maxBytes) throws IOException {
+        return new CacheManager(directory.toPath(), maxBytes).enforceQuota(path -> false);
+    }
+    
+    private static void touch(File destination) {
+        Path path = destination.toPath().toAbsolutePath();
+        new CacheManager(path.getParent(), Long.MAX_VALUE).touch(path);
+    }
+    
+    /**
+     * Downloads to a temporary sibling of the destination and moves it into place only when its
+     * checksum matches. Must be called with the destination's {@link DownloadLock} held.
+     */
+    private void downloadVerified(String url, File destination, String expectedSha256) throws IOException {
+        // Ensure parent directory exists
+        Path target = destination.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
         
-        // Download the file
-        download(url, destination);
-        verifyChecksum(destination, expectedSha256);
-        return DownloadResult.DOWNLOADED;
+        Path temp = Files.createTempFile(target.getParent(), destination.getName(), ".part");
+        try {
+            verifyChecksum(download(url, temp), expectedSha256);
+            moveIntoPlace(temp, target);
+            verifiedHashes.record(target, expectedSha256);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private static void moveIntoPlace(Path source, Path destination) throws IOException {
+        try {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
     
     /**
-     * Downloads a file from a URL.
+     * Downloads a file from a URL, hashing the bytes as they are written.
      * 
      * @param url The URL to download from
      * @param destination The destination file
+     * @return The SHA256 checksum of the downloaded bytes
      * @throws IOException if download fails
      */
-    private void download(String url, File destination) throws IOException {
-        // Ensure parent directory exists
-        destination.getParentFile().mkdirs();
-        
+    private String download(String url, Path destination) throws IOException {
         URL downloadUrl = URI.create(url).toURL();
         URLConnection connection = downloadUrl.openConnection();
         connection.setRequestProperty("User-Agent", "Woodlanders-Launcher-Build");
         connection.connect();
         
-        try (InputStream input = connection.getInputStream()) {
-            Files.copy(input, destination.toPath());
+        MessageDigest digest = Hashing.newSha256();
+        try (InputStream input = new DigestInputStream(connection.getInputStream(), digest)) {
+            Files.copy(input, destination, StandardCopyOption.REPLACE_EXISTING);
         }
+        return Hashing.toHex(digest.digest());
     }
     
     /**
-     * Verifies the checksum of a file.
+     * Verifies a checksum computed during download.
      * 
-     * @param file The file to verify
+     * @param actualChecksum The SHA256 checksum of the downloaded bytes
      * @param expectedSha256 The expected SHA256 checksum
      * @throws IOException if checksum doesn't match
      */
-    private void verifyChecksum(File file, String expectedSha256) throws IOException {
-        try {
-            String actualChecksum = calculateSha256(file);
-            if (!actualChecksum.equals(expectedSha256)) {
-                throw new IOException("Checksum mismatch! Expected: " + expectedSha256 + ", Actual: " + actualChecksum);
+    private void verifyChecksum(String actualChecksum, String expectedSha256) throws IOException {
+        if (!actualChecksum.equals(expectedSha256)) {
+            throw new IOException("Checksum mismatch! Expected: " + expectedSha256 + ", Actual: " + actualChecksum);
+        }
+    }
+    
+    /**
+     * Returns the SHA256 checksum of a cached file, reusing an earlier verification while the
+     * file's metadata is unchanged.
+     * 
+     * @param file The cached file
+     * @return The SHA256 checksum as a hex string
+     * @throws NoSuchAlgorithmException if SHA-256 is not available
+     * @throws IOException if file cannot be read
+     */
+    private String cachedSha256(File file) throws NoSuchAlgorithmException, IOException {
+        if (!paranoid) {
+            Optional<String> verified = verifiedHashes.lookup(file.toPath());
+            if (verified.isPresent()) {
+                return verified.get();
             }
-        } catch (NoSuchAlgorithmException e) {
-            throw new IOException("SHA-256 algorithm not available", e);
         }
+        String checksum = calculateSha256(file);
+        verifiedHashes.record(file.toPath(), checksum);
+        return checksum;
     }
     
     /**
@@ -128,25 +224,6 @@ public class DownloadCacheService {
      * @throws IOException if file cannot be read
      */
     public String calculateSha256(File file) throws NoSuchAlgorithmException, IOException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        
-        try (InputStream input = Files.newInputStream(file.toPath())) {
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = input.read(buffer)) != -1) {
-                digest.update(buffer, 0, bytesRead);
-            }
-        }
-        
-        byte[] hashBytes = digest.digest();
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hashBytes) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
-        }
-        return hexString.toString();
+        return Hashing.sha256(file.toPath());
     }
 }
@@ -0,0 +1,63 @@
+package com.woodlanders.launcher.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.model.DownloadJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Persists the partial-transfer journals that let {@link DownloadService} resume interrupted downloads.
+ */
+public class DownloadJournalStore {
+    private static final Logger LOG = LoggerFactory.getLogger(DownloadJournalStore.class);
+
+    private final ObjectMapper objectMapper;
+
+    public DownloadJournalStore(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public synchronized Optional<DownloadJournal> read(String tagName) {
+        Path journalPath = LauncherPaths.downloadJournalPath(tagName);
+        if (!Files.exists(journalPath)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(objectMapper.readValue(journalPath.toFile(), DownloadJournal.class));
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable download journal at {}", journalPath, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replaces the journal atomically so a crash mid-write never leaves a truncated file behind.
+     */
+    public synchronized void write(DownloadJournal journal) throws IOException {
+        Path journalPath = LauncherPaths.downloadJournalPath(journal.tagName());
+        Path tempPath = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        objectMapper.writeValue(tempPath.toFile(), journal);
+        try {
+            Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public synchronized void delete(String tagName) {
+        Path journalPath = LauncherPaths.downloadJournalPath(tagName);
+        try {
+            Files.deleteIfExists(journalPath);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete download journal {}", journalPath, e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.woodlanders.launcher.services;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive claim on one download destination, held across threads and processes. Threads of this
+ * JVM queue on a per-path {@link ReentrantLock}; the holder then takes an OS lock on a
+ * {@code <destination>.lock} sidecar, which serialises other processes such as parallel Gradle
+ * workers. The in-JVM lock is needed because {@link FileChannel#lock()} is held per process and
+ * throws when a second thread of the same JVM asks for it.
+ *
+ * <p>Sidecar files stay in place while their destination exists. Once the holder has deleted the
+ * destination it may delete the sidecar too ({@link #deleteSidecar()}); a waiter that was queued on
+ * the unlinked file notices when its lock is granted and starts over on a fresh sidecar.
+ */
+final class DownloadLock implements AutoCloseable {
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final Map<Path, LocalLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path key;
+    private final LocalLock localLock;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+
+    private DownloadLock(Path key, LocalLock localLock, FileChannel channel, FileLock fileLock) {
+        this.key = key;
+        this.localLock = localLock;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    /**
+     * Blocks until this thread holds {@code destination} exclusively.
+     */
+    static DownloadLock acquire(Path destination) throws IOException {
+        Path key = destination.toAbsolutePath().normalize();
+        LocalLock localLock = LOCAL_LOCKS.compute(key, (path, existing) -> {
+            LocalLock lock = existing != null ? existing : new LocalLock();
+            lock.users++;
+            return lock;
+        });
+        localLock.lock.lock();
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(key.getParent());
+            Path sidecar = sidecar(key);
+            while (true) {
+                channel = FileChannel.open(sidecar, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock fileLock = channel.lock();
+                if (Files.exists(sidecar)) {
+                    return new DownloadLock(key, localLock, channel, fileLock);
+                }
+                // The previous holder deleted the sidecar together with the destination
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            release(key, localLock);
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes the sidecar of this lock, which stays held until {@link #close()}. Only call this after
+     * the destination itself has been deleted.
+     */
+    void deleteSidecar() throws IOException {
+        Files.deleteIfExists(sidecar(key));
+    }
+
+    /**
+     * Returns the sidecar file locked for {@code destination}.
+     */
+    static Path sidecar(Path destination) {
+        return destination.resolveSibling(destination.getFileName() + LOCK_SUFFIX);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            fileLock.release();
+            channel.close();
+        } finally {
+            release(key, localLock);
+        }
+    }
+
+    private static void release(Path key, LocalLock localLock) {
+        localLock.lock.unlock();
+        LOCAL_LOCKS.computeIfPresent(key, (path, lock) -> --lock.users == 0 ? null : lock);
+    }
+
+    private static final class LocalLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+}
@@ -1,22 +1,41 @@
 package com.woodlanders.launcher.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.diagnostics.ClientDownloadEvent;
+import com.woodlanders.launcher.metrics.LauncherMetrics;
+import com.woodlanders.launcher.model.ClientSource;
+import com.woodlanders.launcher.model.DownloadJournal;
+import com.woodlanders.launcher.model.DownloadJournal.ByteRange;
+import com.woodlanders.launcher.model.DownloadProgress;
 import com.woodlanders.launcher.model.DownloadResult;
 import com.woodlanders.launcher.model.ReleaseInfo;
-import com.woodlanders.launcher.util.Hashing;
+import com.woodlanders.launcher.model.ReleasePatch;
+import com.woodlanders.launcher.util.BinaryPatch;
+import com.woodlanders.launcher.util.ObjectMapperFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Handles streaming downloads with basic integrity checks.
@@ -24,47 +43,544 @@ import java.time.Duration;
 public class DownloadService {
     private static final Logger LOG = LoggerFactory.getLogger(DownloadService.class);
     private static final Duration DOWNLOAD_TIMEOUT = Duration.ofMinutes(5);
+    private static final long MIN_SEGMENT_SIZE = 2L * 1024 * 1024;
+    private static final long CHECKPOINT_INTERVAL = 8L * 1024 * 1024;
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+    private static final Consumer<DownloadProgress> NO_PROGRESS = progress -> { };
 
     private final HttpClient httpClient;
     private final String userAgent;
+    private final DownloadJournalStore journalStore;
+    private final ClientStore clientStore;
+    private final int segmentCount;
+    private final BandwidthLimiter limiter;
+    private final EntryDeltaDownloader entryDeltaDownloader;
 
     public DownloadService(HttpClient httpClient, String userAgent) {
+        this(httpClient, ObjectMapperFactory.create(), userAgent);
+    }
+
+    public DownloadService(HttpClient httpClient, ObjectMapper objectMapper, String userAgent) {
+        this(httpClient, userAgent, new DownloadJournalStore(objectMapper), LauncherSettings.downloadSegments());
+    }
+
+    public DownloadService(HttpClient httpClient, String userAgent, DownloadJournalStore journalStore, int segmentCount) {
+        this(httpClient, userAgent, journalStore, new ClientStore(), segmentCount);
+    }
+
+    public DownloadService(HttpClient httpClient, String userAgent, DownloadJournalStore journalStore,
+                           ClientStore clientStore, int segmentCount) {
+        this(httpClient, userAgent, journalStore, clientStore, segmentCount, BandwidthLimiter.unlimited());
+    }
+
+    /**
+     * @param limiter caps the combined rate of all connections, e.g. for background staging
+     */
+    public DownloadService(HttpClient httpClient, String userAgent, DownloadJournalStore journalStore,
+                           ClientStore clientStore, int segmentCount, BandwidthLimiter limiter) {
         this.httpClient = httpClient;
         this.userAgent = userAgent;
+        this.journalStore = journalStore;
+        this.clientStore = clientStore;
+        this.segmentCount = Math.max(1, segmentCount);
+        this.limiter = limiter;
+        this.entryDeltaDownloader = new EntryDeltaDownloader(httpClient, userAgent, this.segmentCount, limiter);
     }
 
+    /**
+     * Downloads the release asset into the {@link ClientStore} and activates it. When the asset size is known the transfer goes through a
+     * stable per-release partial file, so a failed attempt leaves a journal that the next call resumes from.
+     * The SHA-256 is computed from the same buffers that are written, so the jar is never re-read.
+     */
     public DownloadResult downloadRelease(ReleaseInfo releaseInfo) throws IOException, InterruptedException {
+        return downloadFrom(releaseInfo, null, true, NO_PROGRESS);
+    }
+
+    private DownloadResult downloadFull(ReleaseInfo releaseInfo, boolean activate, Consumer<DownloadProgress> progress)
+            throws IOException, InterruptedException {
         LauncherPaths.ensureConfigDirectory();
+        if (releaseInfo.assetSize() <= 0) {
+            return downloadUnsized(releaseInfo, activate, progress);
+        }
+        Path partFile = LauncherPaths.partialDownloadPath(releaseInfo.tagName());
+        DownloadLock lock = DownloadLock.acquire(partFile);
+        try {
+            if (releaseInfo.sha256() != null && clientStore.contains(releaseInfo.sha256())) {
+                LOG.info("{} was stored while waiting for another download of it", releaseInfo.tagName());
+                LauncherMetrics.CLIENT_SOURCES.increment(ClientSource.STORE);
+                long size = Files.size(clientStore.blobPath(releaseInfo.sha256()));
+                return new DownloadResult(store(releaseInfo.sha256(), activate), releaseInfo.sha256(), size);
+            }
+            return downloadResumable(releaseInfo, partFile, activate, progress);
+        } finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * Transfers through the per-release partial file. Callers hold its {@link DownloadLock}, so a
+     * foreground install and a background staging download of the same release never share it.
+     */
+    private DownloadResult downloadResumable(ReleaseInfo releaseInfo, Path partFile, boolean activate,
+                                             Consumer<DownloadProgress> progress)
+            throws IOException, InterruptedException {
+        DownloadJournal journal = resumableJournal(releaseInfo, partFile);
+        TransferState state = new TransferState(journal.completed(), CHECKPOINT_INTERVAL,
+                transfer -> checkpoint(releaseInfo, transfer));
+        state.etag(journal.etag());
+        ProgressTracker tracker = new ProgressTracker(releaseInfo.assetSize(), progress);
+        state.trackProgress(tracker);
+        try {
+            String sha256;
+            long size;
+            try (FileChannel channel = FileChannel.open(partFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                state.hashFrom(channel);
+                List<ByteRange> missing = state.missingRanges(releaseInfo.assetSize());
+                if (state.completedBytes() > 0) {
+                    LOG.info("Resuming {} with {} of {} bytes already downloaded",
+                            releaseInfo.tagName(), state.completedBytes(), releaseInfo.assetSize());
+                }
+                if (!missing.isEmpty()) {
+                    downloadSegmented(releaseInfo, planSegments(missing), channel, state);
+                }
+                size = channel.size();
+                sha256 = state.finishDigest(size);
+            }
+            LOG.debug("Hashed {} while downloading; read back {} bytes", releaseInfo.tagName(), state.bytesReadBack());
+            if (!matchesRelease(releaseInfo, sha256)) {
+                // No range of the partial file can be trusted, so none is kept for a resume
+                state.reset();
+                throw digestMismatch(releaseInfo, sha256);
+            }
+            Path finalJar = store(partFile, sha256, activate);
+            journalStore.delete(releaseInfo.tagName());
+            LauncherMetrics.CLIENT_SOURCES.increment(ClientSource.DOWNLOAD);
+            return new DownloadResult(finalJar, sha256, size, tracker.finish());
+        } catch (IOException | InterruptedException e) {
+            keepOrDiscardPartial(releaseInfo, partFile, state);
+            throw e;
+        }
+    }
+
+    /**
+     * Updates from the installed client when possible. A binary patch published against it is preferred;
+     * otherwise, unless disabled in {@link LauncherSettings#entryDeltaUpdates()} or the release publishes
+     * no digest to check the result against, only the zip entries that changed are fetched and the rest
+     * are reused from the stored jar. Any failure, including a rebuilt jar whose hash does not match
+     * the release, falls back to {@link #downloadRelease(ReleaseInfo)}.
+     */
+    public DownloadResult downloadRelease(ReleaseInfo releaseInfo, String installedSha256)
+            throws IOException, InterruptedException {
+        return downloadFrom(releaseInfo, installedSha256, true, NO_PROGRESS);
+    }
+
+    /**
+     * Like {@link #downloadRelease(ReleaseInfo, String)}, reporting full transfers to {@code progress}
+     * on the download threads at most 20 times a second, plus once when the transfer completes.
+     * Patched and entry-level updates are not reported.
+     */
+    public DownloadResult downloadRelease(ReleaseInfo releaseInfo, String installedSha256,
+                                          Consumer<DownloadProgress> progress)
+            throws IOException, InterruptedException {
+        return downloadFrom(releaseInfo, installedSha256, true, progress);
+    }
+
+    /**
+     * Downloads the release into the {@link ClientStore} like {@link #downloadRelease(ReleaseInfo, String)}
+     * but leaves the active client untouched, so it is safe while the game is running. The result
+     * points at the stored jar.
+     */
+    public DownloadResult stageRelease(ReleaseInfo releaseInfo, String installedSha256)
+            throws IOException, InterruptedException {
+        return downloadFrom(releaseInfo, installedSha256, false, NO_PROGRESS);
+    }
+
+    private DownloadResult downloadFrom(ReleaseInfo releaseInfo, String installedSha256, boolean activate,
+                                        Consumer<DownloadProgress> progress)
+            throws IOException, InterruptedException {
+        ClientDownloadEvent event = new ClientDownloadEvent();
+        event.begin();
+        DownloadResult result = null;
+        try {
+            result = transfer(releaseInfo, installedSha256, activate, progress);
+            return result;
+        } finally {
+            recordMetrics(result);
+            event.tagName = releaseInfo.tagName();
+            event.staged = !activate;
+            event.succeeded = result != null;
+            if (result != null) {
+                event.bytes = result.size();
+                event.bytesPerSecond = result.bytesPerSecond();
+            }
+            event.commit();
+        }
+    }
+
+    private DownloadResult transfer(ReleaseInfo releaseInfo, String installedSha256, boolean activate,
+                                    Consumer<DownloadProgress> progress)
+            throws IOException, InterruptedException {
+        if (!clientStore.contains(installedSha256)) {
+            return downloadFull(releaseInfo, activate, progress);
+        }
+        Optional<ReleasePatch> patch = releaseInfo.patchFrom(installedSha256);
+        if (patch.isPresent()) {
+            Optional<DownloadResult> patched = downloadPatched(releaseInfo, patch.get(), installedSha256, activate);
+            if (patched.isPresent()) {
+                LauncherMetrics.CLIENT_SOURCES.increment(ClientSource.PATCH);
+                return patched.get();
+            }
+        }
+        // A rebuilt jar is only trusted when it can be checked against the release digest
+        if (LauncherSettings.entryDeltaUpdates() && releaseInfo.assetSize() > 0 && releaseInfo.sha256() != null) {
+            Optional<DownloadResult> rebuilt = downloadChangedEntries(releaseInfo, installedSha256, activate);
+            if (rebuilt.isPresent()) {
+                LauncherMetrics.CLIENT_SOURCES.increment(ClientSource.ENTRY_DELTA);
+                return rebuilt.get();
+            }
+        }
+        LOG.info("Falling back to a full download of {}", releaseInfo.tagName());
+        return downloadFull(releaseInfo, activate, progress);
+    }
+
+    private Optional<DownloadResult> downloadPatched(ReleaseInfo releaseInfo, ReleasePatch patch, String baseSha256,
+                                                     boolean activate) throws IOException, InterruptedException {
+        LauncherPaths.ensureConfigDirectory();
+        Path patchFile = LauncherPaths.tempDownloadPath();
+        Path rebuilt = LauncherPaths.tempDownloadPath();
+        try {
+            // Through the limiter like every other transfer, so staging a patch in the background stays throttled
+            TransferState state = new TransferState(List.of(), Long.MAX_VALUE, transfer -> { });
+            HttpResponse<Long> response;
+            try (FileChannel channel = FileChannel.open(patchFile, StandardOpenOption.WRITE)) {
+                response = httpClient.send(newRequest(patch.downloadUrl()).build(), info ->
+                        isSuccess(info.statusCode())
+                                ? new ChannelBodySubscriber(channel, 0, state, limiter)
+                                : HttpResponse.BodySubscribers.replacing(-1L));
+            }
+            if (!isSuccess(response.statusCode())) {
+                LOG.warn("Patch download for {} failed with status {}", releaseInfo.tagName(), response.statusCode());
+                return Optional.empty();
+            }
+            String sha256;
+            try (InputStream in = Files.newInputStream(patchFile)) {
+                sha256 = BinaryPatch.apply(clientStore.blobPath(baseSha256), in, rebuilt);
+            }
+            long size = Files.size(rebuilt);
+            if (releaseInfo.sha256() != null && !releaseInfo.sha256().equalsIgnoreCase(sha256)
+                    || releaseInfo.assetSize() > 0 && releaseInfo.assetSize() != size) {
+                LOG.warn("Patched {} does not match the release (sha256 {}, {} bytes)", releaseInfo.tagName(), sha256, size);
+                return Optional.empty();
+            }
+            LOG.info("Rebuilt {} from a {} byte patch instead of downloading {} bytes",
+                    releaseInfo.tagName(), Files.size(patchFile), size);
+            return Optional.of(new DownloadResult(store(rebuilt, sha256, activate), sha256, size));
+        } catch (IOException e) {
+            LOG.warn("Delta update to {} failed", releaseInfo.tagName(), e);
+            return Optional.empty();
+        } finally {
+            tryDelete(patchFile);
+            tryDelete(rebuilt);
+        }
+    }
+
+    private Optional<DownloadResult> downloadChangedEntries(ReleaseInfo releaseInfo, String baseSha256,
+                                                            boolean activate) throws InterruptedException {
+        Path rebuilt = null;
+        try {
+            LauncherPaths.ensureConfigDirectory();
+            rebuilt = LauncherPaths.tempDownloadPath();
+            Optional<EntryDeltaDownloader.Result> result =
+                    entryDeltaDownloader.rebuild(releaseInfo, clientStore.blobPath(baseSha256), rebuilt);
+            if (result.isEmpty()) {
+                return Optional.empty();
+            }
+            String sha256 = result.get().sha256();
+            if (!releaseInfo.sha256().equalsIgnoreCase(sha256)) {
+                LOG.warn("Rebuilt {} does not match the release (sha256 {})", releaseInfo.tagName(), sha256);
+                return Optional.empty();
+            }
+            LOG.info("Rebuilt {} from {} changed entries, fetching {} of {} bytes",
+                    releaseInfo.tagName(), result.get().fetchedEntries(), result.get().bytesFetched(), result.get().size());
+            return Optional.of(new DownloadResult(store(rebuilt, sha256, activate), sha256, result.get().size()));
+        } catch (IOException e) {
+            LOG.warn("Entry-level update to {} failed", releaseInfo.tagName(), e);
+            return Optional.empty();
+        } finally {
+            if (rebuilt != null) {
+                tryDelete(rebuilt);
+            }
+        }
+    }
+
+    private DownloadResult downloadUnsized(ReleaseInfo releaseInfo, boolean activate,
+                                           Consumer<DownloadProgress> progress)
+            throws IOException, InterruptedException {
         Path tempFile = LauncherPaths.tempDownloadPath();
-        HttpRequest request = HttpRequest.newBuilder(releaseInfo.downloadUrl())
-                .timeout(DOWNLOAD_TIMEOUT)
-                .header("User-Agent", userAgent)
-                .build();
         try {
-            HttpResponse<Path> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofFile(tempFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                throw new IOException("Download failed with status " + response.statusCode());
+            TransferState state = new TransferState(List.of(), Long.MAX_VALUE, transfer -> { });
+            ProgressTracker tracker = new ProgressTracker(-1, progress);
+            state.trackProgress(tracker);
+            String sha256;
+            long size;
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                state.hashFrom(channel);
+                downloadSingleStream(releaseInfo.downloadUrl(), channel, state);
+                size = channel.size();
+                sha256 = state.finishDigest(size);
+            }
+            if (!matchesRelease(releaseInfo, sha256)) {
+                throw digestMismatch(releaseInfo, sha256);
             }
-            Path finalJar = moveIntoPlace(tempFile);
-            long size = Files.size(finalJar);
-            String sha256 = Hashing.sha256(finalJar);
-            return new DownloadResult(finalJar, sha256, size);
+            Path finalJar = store(tempFile, sha256, activate);
+            LauncherMetrics.CLIENT_SOURCES.increment(ClientSource.DOWNLOAD);
+            return new DownloadResult(finalJar, sha256, size, tracker.finish());
         } catch (IOException | InterruptedException e) {
             tryDelete(tempFile);
             throw e;
         }
     }
 
-    private Path moveIntoPlace(Path tempFile) throws IOException {
-        Path jarPath = LauncherPaths.clientJarPath();
+    private void downloadSingleStream(URI uri, FileChannel channel, TransferState state)
+            throws IOException, InterruptedException {
+        state.reset();
+        channel.truncate(0);
+        HttpResponse<Long> response = httpClient.send(newRequest(uri).build(), info ->
+                isSuccess(info.statusCode())
+                        ? new ChannelBodySubscriber(channel, 0, state, limiter)
+                        : HttpResponse.BodySubscribers.replacing(-1L));
+        if (!isSuccess(response.statusCode())) {
+            throw new IOException("Download failed with status " + response.statusCode());
+        }
+    }
+
+    /**
+     * Fetches every segment concurrently into its own region of a preallocated file. The first
+     * request doubles as the range probe: if the server answers it with a full 200 body (no range
+     * support, or an {@code If-Range} validator that no longer matches), that body is written from
+     * offset zero and no further segments are requested.
+     */
+    private void downloadSegmented(ReleaseInfo releaseInfo, List<Segment> segments, FileChannel channel,
+                                   TransferState state) throws IOException, InterruptedException {
+        URI uri = releaseInfo.downloadUrl();
+        long expectedSize = releaseInfo.assetSize();
+        List<CompletableFuture<HttpResponse<Long>>> pending = new ArrayList<>(segments.size());
+        try {
+            if (channel.size() < expectedSize) {
+                channel.write(ByteBuffer.allocate(1), expectedSize - 1);
+            }
+
+            CompletableFuture<Boolean> rangesHonoured = new CompletableFuture<>();
+            Segment first = segments.get(0);
+            pending.add(httpClient.sendAsync(rangeRequest(uri, first, state.etag()), info -> {
+                String etag = info.headers().firstValue("ETag").orElse(null);
+                if (info.statusCode() == HTTP_PARTIAL_CONTENT) {
+                    boolean matches = expectedSize == totalFromContentRange(info.headers().firstValue("Content-Range").orElse(null));
+                    rangesHonoured.complete(matches);
+                    if (matches && etag != null) {
+                        state.etag(etag);
+                    }
+                    return matches ? new ChannelBodySubscriber(channel, first.start(), state, limiter)
+                            : HttpResponse.BodySubscribers.replacing(-1L);
+                }
+                rangesHonoured.complete(false);
+                if (!isSuccess(info.statusCode())) {
+                    return HttpResponse.BodySubscribers.replacing(-1L);
+                }
+                state.reset();
+                state.etag(etag);
+                return new ChannelBodySubscriber(channel, 0, state, limiter);
+            }));
+            pending.get(0).whenComplete((response, error) -> rangesHonoured.complete(false));
+
+            if (await(rangesHonoured)) {
+                for (Segment segment : segments.subList(1, segments.size())) {
+                    pending.add(httpClient.sendAsync(rangeRequest(uri, segment, state.etag()), info ->
+                            info.statusCode() == HTTP_PARTIAL_CONTENT
+                                    ? new ChannelBodySubscriber(channel, segment.start(), state, limiter)
+                                    : HttpResponse.BodySubscribers.replacing(-1L)));
+                }
+                LOG.info("Downloading {} bytes in {} segments from {}", missingBytes(segments), segments.size(), uri);
+                for (int i = 0; i < pending.size(); i++) {
+                    HttpResponse<Long> response = await(pending.get(i));
+                    Segment segment = segments.get(i);
+                    if (response.statusCode() != HTTP_PARTIAL_CONTENT || response.body() != segment.length()) {
+                        throw new IOException("Segment " + segment + " failed with status " + response.statusCode()
+                                + " after " + response.body() + " bytes");
+                    }
+                }
+                return;
+            }
+
+            HttpResponse<Long> response = await(pending.get(0));
+            if (!isSuccess(response.statusCode())) {
+                throw new IOException("Download failed with status " + response.statusCode());
+            }
+            if (response.statusCode() != HTTP_PARTIAL_CONTENT) {
+                LOG.info("Server sent the full body instead of a range; downloaded it in a single stream");
+                channel.truncate(response.body());
+                return;
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        LOG.warn("Server reported an unexpected Content-Range; retrying as a single stream");
+        downloadSingleStream(uri, channel, state);
+    }
+
+    /**
+     * Loads the journal for this release if its partial file can be resumed, otherwise discards any
+     * stale partial data and starts a fresh journal.
+     */
+    private DownloadJournal resumableJournal(ReleaseInfo releaseInfo, Path partFile) throws IOException {
+        DownloadJournal journal = journalStore.read(releaseInfo.tagName()).orElse(null);
+        boolean resumable = journal != null
+                && releaseInfo.tagName().equals(journal.tagName())
+                && journal.totalSize() == releaseInfo.assetSize()
+                && journal.etag() != null
+                && journal.completed() != null
+                && Files.exists(partFile);
+        if (resumable) {
+            return journal;
+        }
+        Files.deleteIfExists(partFile);
+        journalStore.delete(releaseInfo.tagName());
+        return new DownloadJournal(releaseInfo.tagName(), null, releaseInfo.assetSize(), List.of());
+    }
+
+    private void checkpoint(ReleaseInfo releaseInfo, TransferState state) {
+        if (state.etag() == null) {
+            return;
+        }
         try {
-            Files.move(tempFile, jarPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-        } catch (AtomicMoveNotSupportedException e) {
-            LOG.debug("Atomic move not supported, falling back to regular replace", e);
-            Files.move(tempFile, jarPath, StandardCopyOption.REPLACE_EXISTING);
+            journalStore.write(journalOf(releaseInfo, state));
+        } catch (IOException e) {
+            LOG.warn("Failed to checkpoint download journal for {}", releaseInfo.tagName(), e);
+        }
+    }
+
+    /**
+     * Keeps the partial file for the next attempt when the server gave us a validator to resume
+     * against; without one a resumed file could silently mix two different builds.
+     */
+    private void keepOrDiscardPartial(ReleaseInfo releaseInfo, Path partFile, TransferState state) {
+        if (state.etag() != null && state.completedBytes() > 0) {
+            try {
+                journalStore.write(journalOf(releaseInfo, state));
+                LOG.info("Kept {} of {} bytes of {} for a later resume",
+                        state.completedBytes(), releaseInfo.assetSize(), releaseInfo.tagName());
+                return;
+            } catch (IOException e) {
+                LOG.warn("Failed to write download journal for {}", releaseInfo.tagName(), e);
+            }
+        }
+        journalStore.delete(releaseInfo.tagName());
+        tryDelete(partFile);
+    }
+
+    /**
+     * Whether a downloaded jar with {@code sha256} is the one the release publishes; releases without a
+     * digest accept any.
+     */
+    private static boolean matchesRelease(ReleaseInfo releaseInfo, String sha256) {
+        return releaseInfo.sha256() == null || releaseInfo.sha256().equalsIgnoreCase(sha256);
+    }
+
+    private static IOException digestMismatch(ReleaseInfo releaseInfo, String sha256) {
+        return new IOException("Downloaded " + releaseInfo.tagName() + " has sha256 " + sha256
+                + " but the release publishes " + releaseInfo.sha256());
+    }
+
+    private DownloadJournal journalOf(ReleaseInfo releaseInfo, TransferState state) {
+        return new DownloadJournal(releaseInfo.tagName(), state.etag(), releaseInfo.assetSize(), state.completedRanges());
+    }
+
+    private List<Segment> planSegments(List<ByteRange> missing) {
+        long missingBytes = 0;
+        for (ByteRange range : missing) {
+            missingBytes += range.length();
+        }
+        long count = Math.min(segmentCount, Math.max(1, missingBytes / MIN_SEGMENT_SIZE));
+        long segmentSize = (missingBytes + count - 1) / count;
+        List<Segment> segments = new ArrayList<>();
+        for (ByteRange range : missing) {
+            for (long start = range.start(); start < range.end(); start += segmentSize) {
+                segments.add(new Segment(start, Math.min(segmentSize, range.end() - start)));
+            }
+        }
+        return segments;
+    }
+
+    private static long missingBytes(List<Segment> segments) {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.length();
+        }
+        return total;
+    }
+
+    private HttpRequest.Builder newRequest(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(DOWNLOAD_TIMEOUT)
+                .header("User-Agent", userAgent);
+    }
+
+    private HttpRequest rangeRequest(URI uri, Segment segment, String etag) {
+        HttpRequest.Builder builder = newRequest(uri)
+                .header("Range", "bytes=" + segment.start() + "-" + segment.end());
+        if (etag != null) {
+            builder.header("If-Range", etag);
+        }
+        return builder.build();
+    }
+
+    private static long totalFromContentRange(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int slash = contentRange.lastIndexOf('/');
+        try {
+            return slash >= 0 ? Long.parseLong(contentRange.substring(slash + 1).trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isSuccess(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Segmented download failed", cause);
+        }
+    }
+
+    private Path store(Path downloaded, String sha256, boolean activate) throws IOException {
+        clientStore.put(downloaded, sha256);
+        return store(sha256, activate);
+    }
+
+    private Path store(String sha256, boolean activate) throws IOException {
+        return activate ? clientStore.activate(sha256) : clientStore.blobPath(sha256);
+    }
+
+    private static void recordMetrics(DownloadResult result) {
+        if (result == null) {
+            LauncherMetrics.DOWNLOAD_FAILURES.increment();
+            return;
+        }
+        LauncherMetrics.DOWNLOADED_BYTES.add(result.size());
+        if (result.bytesPerSecond() > 0) {
+            LauncherMetrics.DOWNLOAD_BYTES_PER_SECOND.observe(result.bytesPerSecond());
         }
-        return jarPath;
     }
 
     private void tryDelete(Path file) {
@@ -74,4 +590,13 @@ public class DownloadService {
             LOG.warn("Failed to delete temporary file {}", file, e);
         }
     }
+
+    /**
+     * Inclusive byte range of the asset fetched by one request.
+     */
+    private record Segment(long start, long length) {
+        long end() {
+            return start + length - 1;
+        }
+    }
 }
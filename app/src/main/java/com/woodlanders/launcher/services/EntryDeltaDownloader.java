@@ -0,0 +1,296 @@
+package com.woodlanders.launcher.services;
+
+import com.woodlanders.launcher.model.DownloadJournal.ByteRange;
+import com.woodlanders.launcher.model.ReleaseInfo;
+import com.woodlanders.launcher.util.ZipDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Rebuilds a release jar from the installed one by comparing zip central directories. The remote
+ * directory is read with a range request against the end of the asset; every entry whose record
+ * matches a local one (name, CRC-32, sizes and record length) is copied from the installed jar, and
+ * only the records of changed entries are fetched. Records keep their remote offsets, so the result
+ * is byte-identical to the release whenever unchanged entries were written identically, which is
+ * what reproducible jar builds do.
+ */
+final class EntryDeltaDownloader {
+    private static final Logger LOG = LoggerFactory.getLogger(EntryDeltaDownloader.class);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(5);
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+    private static final long MERGE_GAP = 16 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final HttpClient httpClient;
+    private final String userAgent;
+    private final int concurrency;
+    private final BandwidthLimiter limiter;
+
+    EntryDeltaDownloader(HttpClient httpClient, String userAgent, int concurrency, BandwidthLimiter limiter) {
+        this.httpClient = httpClient;
+        this.userAgent = userAgent;
+        this.concurrency = Math.max(1, concurrency);
+        this.limiter = limiter;
+    }
+
+    /**
+     * Outcome of a rebuild; {@code bytesFetched} includes the remote directory.
+     */
+    record Result(String sha256, long size, long bytesFetched, int reusedEntries, int fetchedEntries) {
+    }
+
+    /**
+     * Writes the release jar to {@code target} using {@code installedJar} for unchanged entries.
+     * Returns empty when the server does not serve byte ranges of the asset.
+     */
+    Optional<Result> rebuild(ReleaseInfo release, Path installedJar, Path target)
+            throws IOException, InterruptedException {
+        ZipDirectory local = ZipDirectory.read(installedJar);
+        URI uri = release.downloadUrl();
+        long size = release.assetSize();
+        long tailStart = Math.max(0, size - ZipDirectory.MAX_TRAILER_LENGTH);
+        HttpResponse<byte[]> tailResponse = fetch(uri, new ByteRange(tailStart, size), null);
+        if (tailResponse.statusCode() != HTTP_PARTIAL_CONTENT
+                || tailResponse.body().length != size - tailStart) {
+            LOG.info("Server did not return a byte range of {}; entry-level update unavailable", uri);
+            return Optional.empty();
+        }
+        String etag = tailResponse.headers().firstValue("ETag").orElse(null);
+        byte[] tail = tailResponse.body();
+        ZipDirectory.Trailer trailer = ZipDirectory.findTrailer(ByteBuffer.wrap(tail), tailStart);
+        ByteBuffer directoryBytes = directoryBytes(uri, trailer, tailStart, tail, etag);
+        long directoryStart = tailStart - (directoryBytes.remaining() - tail.length);
+        ByteBuffer directory = directoryBytes.duplicate().position((int) (trailer.directoryOffset() - directoryStart));
+        ZipDirectory remote = ZipDirectory.parse(directory, trailer);
+
+        Plan plan = plan(remote, local);
+        LOG.info("Entry-level update of {}: reusing {} entries, fetching {} bytes in {} ranges for {} changed entries",
+                release.tagName(), plan.reusedEntries(), plan.fetchBytes(), plan.fetches().size(), plan.fetchedEntries());
+
+        TransferState state = new TransferState(List.of(), Long.MAX_VALUE, progress -> { });
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel in = FileChannel.open(installedJar, StandardOpenOption.READ)) {
+            state.hashFrom(out);
+            CompletableFuture<?> fetches = startFetches(uri, plan.fetches(), out, state, etag);
+            try {
+                copy(in, plan.copies(), out, state);
+                write(out, trailer.directoryOffset(), directory.duplicate(), state);
+                await(fetches);
+            } finally {
+                fetches.cancel(true);
+            }
+            if (!state.missingRanges(size).isEmpty()) {
+                throw new IOException("Rebuilt jar is missing " + state.missingRanges(size));
+            }
+            out.truncate(size);
+            String sha256 = state.finishDigest(size);
+            return Optional.of(new Result(sha256, size, plan.fetchBytes() + directoryBytes.remaining(),
+                    plan.reusedEntries(), plan.fetchedEntries()));
+        }
+    }
+
+    /**
+     * Returns the archive bytes from the start of the central directory to the end, fetching the part
+     * of the directory that did not fit into the tail request.
+     */
+    private ByteBuffer directoryBytes(URI uri, ZipDirectory.Trailer trailer, long tailStart, byte[] tail, String etag)
+            throws IOException, InterruptedException {
+        if (trailer.directoryOffset() >= tailStart) {
+            return ByteBuffer.wrap(tail);
+        }
+        ByteRange head = new ByteRange(trailer.directoryOffset(), tailStart);
+        HttpResponse<byte[]> response = fetch(uri, head, etag);
+        if (response.statusCode() != HTTP_PARTIAL_CONTENT || response.body().length != head.length()) {
+            throw new IOException("Central directory request failed with status " + response.statusCode());
+        }
+        return ByteBuffer.allocate(response.body().length + tail.length).put(response.body()).put(tail).flip();
+    }
+
+    /**
+     * Lays out the remote records in offset order. Short reused records between two fetched ones are
+     * fetched as well, trading a few extra bytes for fewer requests.
+     */
+    private static Plan plan(ZipDirectory remote, ZipDirectory local) {
+        Map<String, ZipDirectory.Entry> localEntries = new HashMap<>();
+        for (ZipDirectory.Entry entry : local.entries()) {
+            localEntries.put(entry.name(), entry);
+        }
+        List<Piece> pieces = new ArrayList<>();
+        long cursor = 0;
+        int reused = 0;
+        for (ZipDirectory.Entry entry : remote.entries()) {
+            if (entry.recordOffset() > cursor) {
+                pieces.add(Piece.fetch(cursor, entry.recordOffset() - cursor));
+            }
+            ZipDirectory.Entry held = localEntries.get(entry.name());
+            if (held != null && held.sameRecordAs(entry)) {
+                pieces.add(new Piece(entry.recordOffset(), entry.recordLength(), held.recordOffset()));
+                reused++;
+            } else {
+                pieces.add(Piece.fetch(entry.recordOffset(), entry.recordLength()));
+            }
+            cursor = entry.recordOffset() + entry.recordLength();
+        }
+        if (remote.directoryOffset() > cursor) {
+            pieces.add(Piece.fetch(cursor, remote.directoryOffset() - cursor));
+        }
+
+        List<ByteRange> fetches = new ArrayList<>();
+        List<Piece> copies = new ArrayList<>();
+        long fetchBytes = 0;
+        for (int i = 0; i < pieces.size(); i++) {
+            Piece piece = pieces.get(i);
+            boolean bridged = piece.isCopy() && piece.length() <= MERGE_GAP
+                    && i > 0 && !pieces.get(i - 1).isCopy()
+                    && i + 1 < pieces.size() && !pieces.get(i + 1).isCopy();
+            if (piece.isCopy() && !bridged) {
+                copies.add(piece);
+                continue;
+            }
+            if (bridged) {
+                reused--;
+            }
+            ByteRange last = fetches.isEmpty() ? null : fetches.get(fetches.size() - 1);
+            if (last != null && last.end() == piece.start()) {
+                fetches.set(fetches.size() - 1, new ByteRange(last.start(), piece.start() + piece.length()));
+            } else {
+                fetches.add(new ByteRange(piece.start(), piece.start() + piece.length()));
+            }
+            fetchBytes += piece.length();
+        }
+        return new Plan(fetches, copies, fetchBytes, reused, remote.entries().size() - reused);
+    }
+
+    /**
+     * Fetches the planned ranges with at most {@code concurrency} requests in flight.
+     */
+    private CompletableFuture<?> startFetches(URI uri, List<ByteRange> ranges, FileChannel out, TransferState state,
+                                              String etag) {
+        Queue<ByteRange> queue = new ConcurrentLinkedQueue<>(ranges);
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(concurrency, Math.max(1, ranges.size()))];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = drain(uri, queue, out, state, etag);
+        }
+        return CompletableFuture.allOf(workers);
+    }
+
+    private CompletableFuture<Void> drain(URI uri, Queue<ByteRange> queue, FileChannel out, TransferState state,
+                                          String etag) {
+        ByteRange range = queue.poll();
+        if (range == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return httpClient.sendAsync(rangeRequest(uri, range, etag), info ->
+                        info.statusCode() == HTTP_PARTIAL_CONTENT
+                                ? new ChannelBodySubscriber(out, range.start(), state, limiter)
+                                : HttpResponse.BodySubscribers.replacing(-1L))
+                .thenCompose(response -> {
+                    if (response.statusCode() != HTTP_PARTIAL_CONTENT || response.body() != range.length()) {
+                        return CompletableFuture.failedFuture(new IOException("Range " + range + " failed with status "
+                                + response.statusCode() + " after " + response.body() + " bytes"));
+                    }
+                    return drain(uri, queue, out, state, etag);
+                });
+    }
+
+    private static void copy(FileChannel in, List<Piece> copies, FileChannel out, TransferState state)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        for (Piece piece : copies) {
+            long done = 0;
+            while (done < piece.length()) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), piece.length() - done));
+                int read = in.read(buffer, piece.sourceOffset() + done);
+                if (read < 0) {
+                    throw new IOException("Installed jar ended inside a reused entry");
+                }
+                buffer.flip();
+                write(out, piece.start() + done, buffer, state);
+                done += read;
+            }
+        }
+    }
+
+    private static void write(FileChannel out, long position, ByteBuffer buffer, TransferState state)
+            throws IOException {
+        ByteBuffer written = buffer.duplicate();
+        long at = position;
+        while (buffer.hasRemaining()) {
+            at += out.write(buffer, at);
+        }
+        state.recordWritten(position, written);
+    }
+
+    /**
+     * Fetches a small range into memory. A server that ignores the range and answers with the whole
+     * asset has its body discarded unread instead of buffered.
+     */
+    private HttpResponse<byte[]> fetch(URI uri, ByteRange range, String etag) throws IOException, InterruptedException {
+        return httpClient.send(rangeRequest(uri, range, etag), info ->
+                info.statusCode() == HTTP_PARTIAL_CONTENT
+                        ? HttpResponse.BodySubscribers.ofByteArray()
+                        : HttpResponse.BodySubscribers.replacing(new byte[0]));
+    }
+
+    private HttpRequest rangeRequest(URI uri, ByteRange range, String etag) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("User-Agent", userAgent)
+                .header("Range", "bytes=" + range.start() + "-" + (range.end() - 1));
+        if (etag != null) {
+            builder.header("If-Range", etag);
+        }
+        return builder.build();
+    }
+
+    private static void await(CompletableFuture<?> future) throws IOException, InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Entry download failed", cause);
+        }
+    }
+
+    /**
+     * Remote bytes {@code [start, start + length)}, copied from {@code sourceOffset} of the installed
+     * jar or fetched when {@code sourceOffset} is negative.
+     */
+    private record Piece(long start, long length, long sourceOffset) {
+        static Piece fetch(long start, long length) {
+            return new Piece(start, length, -1);
+        }
+
+        boolean isCopy() {
+            return sourceOffset >= 0;
+        }
+    }
+
+    private record Plan(List<ByteRange> fetches, List<Piece> copies, long fetchBytes,
+                        int reusedEntries, int fetchedEntries) {
+    }
+}
@@ -1,40 +1,142 @@
 package com.woodlanders.launcher.services;
 
 import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.diagnostics.ClientLaunchEvent;
+import com.woodlanders.launcher.metrics.LauncherMetrics;
+import com.woodlanders.launcher.model.JvmProfile;
+import com.woodlanders.launcher.model.LaunchRecord;
+import com.woodlanders.launcher.util.Hashing;
+import com.woodlanders.launcher.util.ObjectMapperFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Spawns the actual Woodlanders Java client.
+ *
+ * <p>When the client's hash is known, the game runs straight from its {@link ClientStore} entry with
+ * an AppCDS archive beside it: the first launch of a version is the training run and dumps the
+ * classes it loaded with {@code -XX:ArchiveClassesAtExit}, and later launches map them with
+ * {@code -XX:SharedArchiveFile} instead of loading and verifying them again. The archive is named
+ * after the jar's SHA-256 and the runtime that dumped it, so each version and each JVM gets its own.
+ * Running from the store rather than the active link keeps the jar's path and timestamp stable, which
+ * the JVM checks before using an archive; a JVM that rejects the archive simply runs without it. Each
+ * runtime's version is probed once, and runtimes too old to dump an archive (before JDK 13) are not
+ * given the options at all.
+ *
+ * <p>The runtime, heap and collector come from the selected {@link JvmProfile}; see
+ * {@link JvmProfileService}.
  */
 public class GameLaunchService {
     private static final Logger LOG = LoggerFactory.getLogger(GameLaunchService.class);
+    private static final String TRAINING_SUFFIX = ".tmp";
+    // CDS_DYNAMIC_ARCHIVE_MAGIC, in the byte order of the machine that dumped the archive
+    private static final int DYNAMIC_ARCHIVE_MAGIC = 0xf00baba8;
+    private static final int RUNTIME_KEY_LENGTH = 12;
+    private static final int DYNAMIC_ARCHIVE_FEATURE_VERSION = 13;
+    // "1.8.0_392" is feature release 8, "17.0.9+9" is 17
+    private static final Pattern FEATURE_VERSION = Pattern.compile("1\\.(\\d{1,4})|(\\d{1,4})");
+    private static final Pattern REPORTED_VERSION = Pattern.compile("version \"([^\"]+)\"");
+    private static final long VERSION_PROBE_TIMEOUT_SECONDS = 10;
+
+    private final ClientStore clientStore;
+    private final boolean classDataSharing;
+    private final JvmProfileService profileService;
+    private final Set<LaunchedClient> running = ConcurrentHashMap.newKeySet();
+    private final Map<String, Boolean> dynamicArchiving = new ConcurrentHashMap<>();
+
+    public GameLaunchService() {
+        this(new ClientStore(), LauncherSettings.clientClassDataSharing(),
+                new JvmProfileService(ObjectMapperFactory.create()));
+    }
+
+    public GameLaunchService(ClientStore clientStore, boolean classDataSharing, JvmProfileService profileService) {
+        this.clientStore = clientStore;
+        this.classDataSharing = classDataSharing;
+        this.profileService = profileService;
+    }
 
     public Process launchClient() throws IOException {
+        return launchClient(clientStore.activeHash().orElse(null));
+    }
+
+    /**
+     * Launches the active client, whose SHA-256 is {@code clientSha256} if known.
+     */
+    public Process launchClient(String clientSha256) throws IOException {
+        return launch(clientSha256).process();
+    }
+
+    /**
+     * Like {@link #launchClient(String)}, also returning what was recorded about the launch so the
+     * session can be supervised.
+     */
+    public LaunchedClient launch(String clientSha256) throws IOException {
+        return launch(clientSha256, null);
+    }
+
+    /**
+     * Like {@link #launch(String)}, writing the game's standard output and error to {@code outputLog}
+     * instead of the launcher's own streams when it is not {@code null}.
+     */
+    public LaunchedClient launch(String clientSha256, Path outputLog) throws IOException {
+        ClientLaunchEvent event = new ClientLaunchEvent();
+        event.begin();
+        long started = System.nanoTime();
         Path jarPath = LauncherPaths.clientJarPath();
         if (!Files.exists(jarPath)) {
             throw new IOException("Woodlanders client jar not found at " + jarPath);
         }
-        
-        // Build command with macOS-specific JVM arguments if needed
-        ProcessBuilder builder;
+        JvmProfile profile = profileService.selectedProfile();
+        String javaExecutable = profileService.javaExecutable(profile);
+        String runtimeKey = classDataSharing && clientStore.contains(clientSha256) ? runtimeKey(javaExecutable) : null;
+        boolean archived = runtimeKey != null && supportsDynamicArchive(javaExecutable, runtimeKey);
+        Path archive = archived ? clientStore.archivePath(clientSha256, runtimeKey) : null;
+        Path trainingArchive = archived ? archive.resolveSibling(archive.getFileName() + TRAINING_SUFFIX) : null;
+        if (archived && !Files.isRegularFile(archive)) {
+            // A training run that outlived the launcher which started it left its archive behind
+            promoteArchive(trainingArchive, archive);
+        }
+        boolean training = archived && !Files.isRegularFile(archive);
+
+        List<String> command = new ArrayList<>();
+        command.add(javaExecutable);
+        command.addAll(JvmProfileService.jvmOptions(profile));
         if (isMacOS()) {
             // On macOS, LWJGL/GLFW requires -XstartOnFirstThread for OpenGL applications
-            builder = new ProcessBuilder("java", "-XstartOnFirstThread", "-jar", jarPath.toString());
-            LOG.info("Launching Woodlanders on macOS with -XstartOnFirstThread from {}", jarPath);
-        } else {
-            builder = new ProcessBuilder("java", "-jar", jarPath.toString());
-            LOG.info("Launching Woodlanders from {}", jarPath);
+            command.add("-XstartOnFirstThread");
         }
-        
+        if (archived) {
+            command.addAll(archiveOptions(archive, training ? trainingArchive : null));
+            jarPath = clientStore.blobPath(clientSha256);
+        }
+        command.add("-jar");
+        command.add(jarPath.toString());
+        ProcessBuilder builder = new ProcessBuilder(command);
+        LOG.info("Launching Woodlanders from {} with JVM profile '{}'{}", jarPath, profile.name(),
+                training ? " (training the class data archive)" : archived ? " with its class data archive" : "");
+
         builder.directory(LauncherPaths.configDirectory().toFile());
 
         // Snap: explicitly wire PulseAudio for confined environment.
@@ -45,7 +147,12 @@ public class GameLaunchService {
             builder.environment().put("PULSE_LATENCY_MSEC", "60");
         }
 
-        builder.inheritIO();
+        if (outputLog != null) {
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(ProcessBuilder.Redirect.to(outputLog.toFile()));
+        } else {
+            builder.inheritIO();
+        }
         
         // Debug: Log the exact command being executed
         LOG.info("Executing command: {}", String.join(" ", builder.command()));
@@ -53,9 +160,200 @@ public class GameLaunchService {
         
         Process process = builder.start();
         LOG.info("Game process started with PID: {}", process.pid());
-        return process;
+        LauncherMetrics.GAME_START_SECONDS.observeSince(started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.clientSha256 = clientSha256;
+            event.profile = profile.name();
+            event.classDataSharing = training ? "training" : archived ? "archive" : "off";
+            event.pid = process.pid();
+            event.commit();
+        }
+        LaunchRecord record = new LaunchRecord(Instant.now(), clientSha256, profile.name(), process.pid(),
+                List.copyOf(builder.command()));
+        profileService.recordLaunch(record);
+        if (training) {
+            process.onExit().thenRun(() -> {
+                if (!promoteArchive(trainingArchive, archive)) {
+                    deleteQuietly(trainingArchive);
+                }
+            });
+        }
+        LaunchedClient launched = new LaunchedClient(process, record);
+        running.add(launched);
+        process.onExit().thenRun(() -> running.remove(launched));
+        return launched;
     }
-    
+
+    /**
+     * Returns what was recorded about the games this service started that have not exited yet. Their
+     * jars and archives must stay where they are until they do.
+     */
+    public List<LaunchRecord> runningClients() {
+        return running.stream()
+                .filter(launched -> launched.process().isAlive())
+                .map(LaunchedClient::record)
+                .toList();
+    }
+
+    /**
+     * Uses {@code archive} when it exists, otherwise dumps one to {@code trainingArchive}. Only for
+     * runtimes that {@link #supportsDynamicArchive support} the options.
+     */
+    static List<String> archiveOptions(Path archive, Path trainingArchive) {
+        return trainingArchive != null
+                ? List.of("-XX:ArchiveClassesAtExit=" + trainingArchive)
+                : List.of("-XX:SharedArchiveFile=" + archive);
+    }
+
+    /**
+     * Whether the runtime behind {@code javaExecutable} can dump and map dynamic archives. Its version
+     * is probed once per runtime key; a runtime that is too old, or whose version cannot be told,
+     * runs without an archive rather than failing on options it does not know.
+     */
+    private boolean supportsDynamicArchive(String javaExecutable, String runtimeKey) {
+        return dynamicArchiving.computeIfAbsent(runtimeKey, key -> {
+            int featureVersion = probeFeatureVersion(javaExecutable);
+            if (featureVersion < DYNAMIC_ARCHIVE_FEATURE_VERSION) {
+                LOG.info("Running {} without a class data archive: {}", javaExecutable,
+                        featureVersion < 0 ? "its version is unknown" : "Java " + featureVersion + " cannot dump one");
+            }
+            return featureVersion >= DYNAMIC_ARCHIVE_FEATURE_VERSION;
+        });
+    }
+
+    /**
+     * Returns the feature release of the runtime behind {@code javaExecutable}, such as 17, from its
+     * {@code release} file or else from {@code java -version}; -1 if neither tells.
+     */
+    static int probeFeatureVersion(String javaExecutable) {
+        try {
+            Path home = Path.of(javaExecutable).toRealPath().getParent().getParent();
+            Optional<String> version = releaseVersion(home);
+            if (version.isPresent()) {
+                return featureVersion(version.get());
+            }
+        } catch (IOException | InvalidPathException | NullPointerException e) {
+            LOG.debug("Could not resolve the runtime of {}", javaExecutable, e);
+        }
+        return reportedVersion(javaExecutable).map(GameLaunchService::featureVersion).orElse(-1);
+    }
+
+    static int featureVersion(String version) {
+        Matcher matcher = FEATURE_VERSION.matcher(version);
+        if (!matcher.lookingAt()) {
+            return -1;
+        }
+        return Integer.parseInt(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+    }
+
+    private static Optional<String> reportedVersion(String javaExecutable) {
+        try {
+            Process process = new ProcessBuilder(javaExecutable, "-version").redirectErrorStream(true).start();
+            // The few lines -version prints fit in the pipe, so the process never blocks on them
+            if (!process.waitFor(VERSION_PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return Optional.empty();
+            }
+            String output;
+            try (InputStream in = process.getInputStream()) {
+                output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            Matcher matcher = REPORTED_VERSION.matcher(output);
+            return matcher.find() ? Optional.of(matcher.group(1)) : Optional.empty();
+        } catch (IOException e) {
+            LOG.debug("Could not run {} -version", javaExecutable, e);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Moves a finished training archive into place. The JVM writes the archive while shutting down and
+     * its header last, so a file that starts with the dynamic archive magic is complete; anything else
+     * is a run that is still going, crashed or was killed during the dump.
+     *
+     * @return whether {@code archive} now exists
+     */
+    static boolean promoteArchive(Path trainingArchive, Path archive) {
+        if (!isCompleteArchive(trainingArchive)) {
+            return false;
+        }
+        try {
+            Files.move(trainingArchive, archive, StandardCopyOption.REPLACE_EXISTING);
+            LOG.info("Saved class data archive {}", archive);
+            return true;
+        } catch (IOException e) {
+            LOG.warn("Failed to keep class data archive {}", trainingArchive, e);
+            return false;
+        }
+    }
+
+    /**
+     * Identifies the runtime behind {@code javaExecutable} by its home directory and version, so an
+     * archive dumped by one JVM is never offered to another. Falls back to the executable's name when
+     * it cannot be resolved.
+     */
+    static String runtimeKey(String javaExecutable) {
+        String identity = javaExecutable;
+        try {
+            Path home = Path.of(javaExecutable).toRealPath().getParent().getParent();
+            identity = home + "\n" + runtimeVersion(home);
+        } catch (IOException | InvalidPathException | NullPointerException e) {
+            LOG.debug("Could not resolve the runtime of {}", javaExecutable, e);
+        }
+        MessageDigest digest = Hashing.newSha256();
+        return Hashing.toHex(digest.digest(identity.getBytes(StandardCharsets.UTF_8))).substring(0, RUNTIME_KEY_LENGTH);
+    }
+
+    private static String runtimeVersion(Path javaHome) throws IOException {
+        Optional<String> version = releaseVersion(javaHome);
+        return version.isPresent() ? version.get() : Files.getLastModifiedTime(javaHome).toString();
+    }
+
+    private static Optional<String> releaseVersion(Path javaHome) throws IOException {
+        Path release = javaHome.resolve("release");
+        if (!Files.isRegularFile(release)) {
+            return Optional.empty();
+        }
+        String version = null;
+        for (String line : Files.readAllLines(release, StandardCharsets.UTF_8)) {
+            if (line.startsWith("JAVA_RUNTIME_VERSION=") || (version == null && line.startsWith("JAVA_VERSION="))) {
+                version = line.substring(line.indexOf('=') + 1).replace("\"", "");
+            }
+        }
+        return Optional.ofNullable(version);
+    }
+
+    private static boolean isCompleteArchive(Path file) {
+        byte[] header = new byte[4];
+        try (InputStream in = Files.newInputStream(file)) {
+            if (in.readNBytes(header, 0, header.length) < header.length) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        int magic = ByteBuffer.wrap(header).getInt();
+        return magic == DYNAMIC_ARCHIVE_MAGIC || Integer.reverseBytes(magic) == DYNAMIC_ARCHIVE_MAGIC;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.debug("Failed to delete {}", file, e);
+        }
+    }
+
+    /**
+     * A started game process and its entry in the launch history.
+     */
+    public record LaunchedClient(Process process, LaunchRecord record) {
+    }
+
     private void configurePulseServer(Map<String, String> environment) {
         String inherited = System.getenv("PULSE_SERVER");
         if (isUsablePulseSocket(inherited)) {
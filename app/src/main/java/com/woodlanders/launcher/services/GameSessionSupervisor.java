@@ -0,0 +1,307 @@
+package com.woodlanders.launcher.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.model.LaunchRecord;
+import com.woodlanders.launcher.model.SessionMetrics;
+import com.woodlanders.launcher.model.SessionMetrics.Sample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches running game processes. While a game runs its CPU time, resident memory and thread count
+ * are sampled at a fixed interval (memory and threads from {@code /proc} on Linux, CPU time through
+ * {@link ProcessHandle} everywhere); when it exits, the exit code and a summary are written to a small
+ * JSON file per session under {@code sessions/}, so memory use can be compared across client versions.
+ *
+ * <p>The file is first written with status {@code RUNNING} at launch. When the launcher quits before
+ * the game, {@link #recoverUnfinished()} on a later run picks the session up again: a game that is
+ * still running is sampled until it exits, though without its exit code, and one that has already
+ * exited is marked {@code LOST}.
+ */
+public class GameSessionSupervisor implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(GameSessionSupervisor.class);
+    private static final int MAX_SAMPLES = 720;
+    private static final int SESSIONS_KEPT = 50;
+    private static final Duration PID_REUSE_TOLERANCE = Duration.ofSeconds(10);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper;
+    private final Path sessionsDirectory;
+    private final Duration interval;
+    private final Set<Long> supervised = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "woodlanders-session-supervisor");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    public GameSessionSupervisor(ObjectMapper objectMapper) {
+        this(objectMapper, LauncherPaths.sessionsDirectory(), LauncherSettings.telemetryInterval());
+    }
+
+    public GameSessionSupervisor(ObjectMapper objectMapper, Path sessionsDirectory, Duration interval) {
+        this.objectMapper = objectMapper;
+        this.sessionsDirectory = sessionsDirectory;
+        this.interval = interval;
+    }
+
+    /**
+     * Samples {@code process} until it exits. The returned future completes with the session summary
+     * once it has been written; it never completes exceptionally because of telemetry failures.
+     */
+    public CompletableFuture<SessionMetrics> supervise(Process process, LaunchRecord launch, String version) {
+        Session session = new Session(process.toHandle(), launch != null ? launch.clientSha256() : null,
+                launch != null ? launch.profile() : null, version, Instant.now());
+        supervised.add(process.pid());
+        write(session.started());
+        ScheduledFuture<?> sampling = scheduler.scheduleAtFixedRate(session::sample, 0,
+                interval.toMillis(), TimeUnit.MILLISECONDS);
+        return process.onExit().thenApply(exited -> finish(session, sampling, exited.exitValue()));
+    }
+
+    /**
+     * Completes the sessions that earlier launcher runs left {@code RUNNING}: games that still run are
+     * supervised until they exit, the others are marked {@code LOST}. Failures are logged.
+     */
+    public void recoverUnfinished() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(sessionsDirectory, "*.json")) {
+            entries.forEach(files::add);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            LOG.warn("Failed to scan {} for unfinished sessions", sessionsDirectory, e);
+            return;
+        }
+        for (Path file : files) {
+            SessionMetrics recorded;
+            try {
+                recorded = objectMapper.readValue(file.toFile(), SessionMetrics.class);
+            } catch (IOException e) {
+                LOG.debug("Skipping unreadable session file {}", file, e);
+                continue;
+            }
+            if (recorded.status() != SessionMetrics.Status.RUNNING || !supervised.add(recorded.pid())) {
+                continue;
+            }
+            Optional<ProcessHandle> handle = ProcessHandle.of(recorded.pid())
+                    .filter(ProcessHandle::isAlive)
+                    .filter(alive -> isSameProcess(alive, recorded.startedAt()));
+            if (handle.isPresent()) {
+                LOG.info("Resuming supervision of game process {} started at {}", recorded.pid(), recorded.startedAt());
+                Session session = new Session(handle.get(), recorded.clientSha256(), recorded.profile(),
+                        recorded.version(), recorded.startedAt());
+                ScheduledFuture<?> sampling = scheduler.scheduleAtFixedRate(session::sample, 0,
+                        interval.toMillis(), TimeUnit.MILLISECONDS);
+                handle.get().onExit().thenAccept(exited -> finish(session, sampling, null));
+            } else {
+                supervised.remove(recorded.pid());
+                write(file, lost(recorded));
+            }
+        }
+    }
+
+    /**
+     * True when {@code handle} is the process a session recorded, not a later one that reuses its pid.
+     * The session is recorded just after the process starts.
+     */
+    static boolean isSameProcess(ProcessHandle handle, Instant recordedStart) {
+        return handle.info().startInstant()
+                .map(started -> Duration.between(started, recordedStart).abs().compareTo(PID_REUSE_TOLERANCE) <= 0)
+                .orElse(false);
+    }
+
+    private SessionMetrics finish(Session session, ScheduledFuture<?> sampling, Integer exitCode) {
+        sampling.cancel(false);
+        supervised.remove(session.handle.pid());
+        SessionMetrics metrics = session.finish(exitCode);
+        write(metrics);
+        if (metrics.failed()) {
+            LOG.warn("Game process {} exited with code {} after {} s", metrics.pid(), metrics.exitCode(),
+                    metrics.durationMillis() / 1000);
+        } else {
+            LOG.info("Game process {} exited after {} s; peak RSS {} kB", metrics.pid(),
+                    metrics.durationMillis() / 1000, metrics.peakRssKilobytes());
+        }
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Reads resident memory and thread count from the lines of {@code /proc/<pid>/status}; either is
+     * {@code -1} when missing.
+     */
+    static long[] parseStatus(List<String> lines) {
+        long rssKilobytes = -1;
+        long threads = -1;
+        for (String line : lines) {
+            if (line.startsWith("VmRSS:")) {
+                rssKilobytes = firstNumber(line);
+            } else if (line.startsWith("Threads:")) {
+                threads = firstNumber(line);
+            }
+        }
+        return new long[] {rssKilobytes, threads};
+    }
+
+    private static SessionMetrics lost(SessionMetrics running) {
+        return new SessionMetrics(SessionMetrics.Status.LOST, running.version(), running.clientSha256(),
+                running.profile(), running.pid(), running.startedAt(), null, null, -1, -1, -1, -1, -1, List.of());
+    }
+
+    /**
+     * Writes the session's file, replacing the record written at its start.
+     */
+    private void write(SessionMetrics metrics) {
+        write(sessionsDirectory.resolve(FILE_TIME.format(metrics.startedAt()) + "-" + metrics.pid() + ".json"), metrics);
+    }
+
+    private void write(Path file, SessionMetrics metrics) {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(sessionsDirectory);
+            objectMapper.writeValue(tempFile.toFile(), metrics);
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            pruneSessions();
+        } catch (IOException e) {
+            LOG.warn("Failed to write session metrics to {}", file, e);
+        }
+    }
+
+    private void pruneSessions() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(sessionsDirectory, "*.json")) {
+            entries.forEach(files::add);
+        }
+        if (files.size() <= SESSIONS_KEPT) {
+            return;
+        }
+        // File names start with the UTC start time, so they sort chronologically
+        files.sort(null);
+        for (Path old : files.subList(0, files.size() - SESSIONS_KEPT)) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private static long firstNumber(String line) {
+        long value = 0;
+        boolean found = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                found = true;
+            } else if (found) {
+                break;
+            }
+        }
+        return found ? value : -1;
+    }
+
+    private static final class Session {
+        private final ProcessHandle handle;
+        private final String clientSha256;
+        private final String profile;
+        private final String version;
+        private final Path statusFile;
+        private final Instant startedAt;
+        private final List<Sample> samples = new ArrayList<>();
+        private long lastCpuMillis;
+        private long peakRss = -1;
+        private long rssTotal;
+        private int rssCount;
+        private int peakThreads = -1;
+
+        private Session(ProcessHandle handle, String clientSha256, String profile, String version, Instant startedAt) {
+            this.handle = handle;
+            this.clientSha256 = clientSha256;
+            this.profile = profile;
+            this.version = version;
+            this.startedAt = startedAt;
+            Path proc = Path.of("/proc", Long.toString(handle.pid()), "status");
+            this.statusFile = Files.isReadable(proc) ? proc : null;
+        }
+
+        private SessionMetrics started() {
+            return new SessionMetrics(SessionMetrics.Status.RUNNING, version, clientSha256, profile, handle.pid(),
+                    startedAt, null, null, 0, 0, -1, -1, -1, List.of());
+        }
+
+        private synchronized void sample() {
+            if (!handle.isAlive()) {
+                return;
+            }
+            long cpuMillis = handle.info().totalCpuDuration().map(Duration::toMillis).orElse(lastCpuMillis);
+            long[] status = readStatus();
+            lastCpuMillis = cpuMillis;
+            if (status[0] >= 0) {
+                peakRss = Math.max(peakRss, status[0]);
+                rssTotal += status[0];
+                rssCount++;
+            }
+            peakThreads = Math.max(peakThreads, (int) status[1]);
+            if (samples.size() == MAX_SAMPLES) {
+                // Long sessions keep every other sample; the peaks and averages above stay exact
+                for (int i = samples.size() - 1; i > 0; i -= 2) {
+                    samples.remove(i);
+                }
+            }
+            samples.add(new Sample(Duration.between(startedAt, Instant.now()).toMillis(), cpuMillis,
+                    status[0], (int) status[1]));
+        }
+
+        private long[] readStatus() {
+            if (statusFile == null) {
+                return new long[] {-1, -1};
+            }
+            try {
+                return parseStatus(Files.readAllLines(statusFile, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // the process exited between the liveness check and the read
+                return new long[] {-1, -1};
+            }
+        }
+
+        private synchronized SessionMetrics finish(Integer exitCode) {
+            Instant endedAt = Instant.now();
+            return new SessionMetrics(SessionMetrics.Status.EXITED, version, clientSha256, profile, handle.pid(),
+                    startedAt, endedAt, exitCode, Duration.between(startedAt, endedAt).toMillis(), lastCpuMillis,
+                    peakRss, rssCount > 0 ? rssTotal / rssCount : -1, peakThreads, samples);
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package com.woodlanders.launcher.services;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.diagnostics.ReleaseCheckEvent;
+import com.woodlanders.launcher.metrics.LauncherMetrics;
+import com.woodlanders.launcher.model.ReleaseCacheEntry;
 import com.woodlanders.launcher.model.ReleaseInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
-import java.util.Iterator;
+import java.time.Instant;
 import java.util.Optional;
 
 /**
@@ -22,30 +31,85 @@ import java.util.Optional;
 public class GithubReleaseService {
     private static final Logger LOG = LoggerFactory.getLogger(GithubReleaseService.class);
     private static final URI LATEST_RELEASE_URI = URI.create("https://api.github.com/repos/gcclinux/Woodlanders/releases/latest");
-    private static final String TARGET_ASSET_NAME = "woodlanders-client.jar";
     private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(20);
+    private static final int HTTP_NOT_MODIFIED = 304;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final ReleaseJsonParser releaseParser;
     private final String userAgent;
+    private final URI releaseUri;
+    private final Path cachePath;
+    private final Duration cacheTtl;
 
     public GithubReleaseService(HttpClient httpClient, ObjectMapper objectMapper, String userAgent) {
+        this(httpClient, objectMapper, userAgent, LATEST_RELEASE_URI, LauncherPaths.releaseCachePath(),
+                LauncherSettings.releaseCacheTtl());
+    }
+
+    public GithubReleaseService(HttpClient httpClient, ObjectMapper objectMapper, String userAgent,
+                                URI releaseUri, Path cachePath, Duration cacheTtl) {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.releaseParser = new ReleaseJsonParser(objectMapper.getFactory());
         this.userAgent = userAgent;
+        this.releaseUri = releaseUri;
+        this.cachePath = cachePath;
+        this.cacheTtl = cacheTtl;
     }
 
+    /**
+     * Returns the latest release, answering from the on-disk cache while it is younger than the
+     * configured TTL and revalidating it with a conditional request afterwards, so an unchanged
+     * release costs a 304 and no parsing.
+     */
     public Optional<ReleaseInfo> fetchLatestRelease() {
-        HttpRequest request = HttpRequest.newBuilder(LATEST_RELEASE_URI)
+        ReleaseCheckEvent event = new ReleaseCheckEvent();
+        event.begin();
+        long started = System.nanoTime();
+        Optional<ReleaseInfo> release = Optional.empty();
+        try {
+            release = fetchLatestRelease(event);
+            return release;
+        } finally {
+            LauncherMetrics.RELEASE_CHECK_SECONDS.observeSince(started);
+            if (release.isEmpty()) {
+                LauncherMetrics.RELEASE_CHECK_FAILURES.increment();
+            }
+            event.tagName = release.map(ReleaseInfo::tagName).orElse(null);
+            event.commit();
+        }
+    }
+
+    private Optional<ReleaseInfo> fetchLatestRelease(ReleaseCheckEvent event) {
+        Optional<ReleaseCacheEntry> cached = readCache();
+        Instant now = Instant.now();
+        if (cached.isPresent() && cached.get().checkedAt().plus(cacheTtl).isAfter(now)) {
+            LOG.debug("Using cached release {} checked at {}", cached.get().release().tagName(), cached.get().checkedAt());
+            event.cached = true;
+            return Optional.of(cached.get().release());
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(releaseUri)
                 .timeout(REQUEST_TIMEOUT)
                 .header("Accept", "application/vnd.github+json")
-                .header("User-Agent", userAgent)
-                .build();
+                .header("User-Agent", userAgent);
+        cached.ifPresent(entry -> {
+            if (entry.etag() != null) {
+                builder.header("If-None-Match", entry.etag());
+            }
+            if (entry.lastModified() != null) {
+                builder.header("If-Modified-Since", entry.lastModified());
+            }
+        });
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                return parseRelease(response.body());
+            HttpResponse<InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            event.status = response.statusCode();
+            try (CountingInputStream body = new CountingInputStream(response.body())) {
+                try {
+                    return handleResponse(response, body, cached, now);
+                } finally {
+                    event.bytes = body.count();
+                }
             }
-            LOG.warn("GitHub latest release check failed with status {}", response.statusCode());
         } catch (IOException e) {
             LOG.warn("I/O error while talking to GitHub", e);
         } catch (InterruptedException e) {
@@ -55,52 +119,105 @@ public class GithubReleaseService {
         return Optional.empty();
     }
 
-    private Optional<ReleaseInfo> parseRelease(String body) throws IOException {
-        JsonNode root = objectMapper.readTree(body);
-        String tagName = textValue(root, "tag_name");
-        if (tagName == null || tagName.isBlank()) {
-            LOG.warn("Latest release response did not contain a tag_name");
+    private Optional<ReleaseInfo> handleResponse(HttpResponse<InputStream> response, InputStream body,
+                                                 Optional<ReleaseCacheEntry> cached, Instant now) throws IOException {
+        if (response.statusCode() == HTTP_NOT_MODIFIED && cached.isPresent()) {
+            LOG.debug("Latest release unchanged since {}", cached.get().checkedAt());
+            writeCache(cached.get().withCheckedAt(now));
+            return Optional.of(cached.get().release());
+        }
+        if (response.statusCode() >= 200 && response.statusCode() < 300) {
+            Optional<ReleaseInfo> release = releaseParser.parseRelease(body);
+            release.ifPresent(info -> writeCache(new ReleaseCacheEntry(
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    now, info)));
+            return release;
+        }
+        LOG.warn("GitHub latest release check failed with status {}", response.statusCode());
+        return Optional.empty();
+    }
+
+    private Optional<ReleaseCacheEntry> readCache() {
+        if (!Files.exists(cachePath)) {
             return Optional.empty();
         }
-        JsonNode assetsNode = root.path("assets");
-        if (!assetsNode.isArray()) {
-            LOG.warn("Latest release response did not contain any assets");
+        try {
+            ReleaseCacheEntry entry = objectMapper.readValue(cachePath.toFile(), ReleaseCacheEntry.class);
+            return entry != null && entry.release() != null && entry.checkedAt() != null
+                    ? Optional.of(entry) : Optional.empty();
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable release cache at {}", cachePath, e);
             return Optional.empty();
         }
-        return selectAsset(assetsNode)
-                .map(asset -> buildReleaseInfo(tagName, asset));
     }
 
-    private Optional<JsonNode> selectAsset(JsonNode assetsNode) {
-        JsonNode preferred = null;
-        Iterator<JsonNode> iterator = assetsNode.elements();
-        while (iterator.hasNext()) {
-            JsonNode asset = iterator.next();
-            String name = textValue(asset, "name");
-            if (name == null) {
-                continue;
-            }
-            if (TARGET_ASSET_NAME.equals(name)) {
-                return Optional.of(asset);
+    /**
+     * Replaces the cache atomically, so a crash mid-write or a second launcher reading it never sees
+     * a truncated file. The temporary file is unique, as the window and the CLI may write at once.
+     */
+    private void writeCache(ReleaseCacheEntry entry) {
+        Path temp = null;
+        try {
+            Path parent = cachePath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            temp = Files.createTempFile(parent, cachePath.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(temp.toFile(), entry);
+            try {
+                Files.move(temp, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, cachePath, StandardCopyOption.REPLACE_EXISTING);
             }
-            if (name.endsWith(".jar")) {
-                preferred = asset;
+        } catch (IOException e) {
+            LOG.warn("Failed to write release cache at {}", cachePath, e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    LOG.debug("Failed to delete {}", temp, e);
+                }
             }
         }
-        return Optional.ofNullable(preferred);
     }
 
-    private ReleaseInfo buildReleaseInfo(String tagName, JsonNode asset) {
-        String downloadUrl = textValue(asset, "browser_download_url");
-        long size = asset.path("size").asLong();
-        if (downloadUrl == null || downloadUrl.isBlank()) {
-            throw new IllegalStateException("Asset missing browser_download_url");
+    /**
+     * Counts the bytes the parser actually consumed, which is less than the body when it stops early.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
         }
-        return new ReleaseInfo(tagName, URI.create(downloadUrl), size);
-    }
 
-    private String textValue(JsonNode node, String fieldName) {
-        JsonNode field = node.get(fieldName);
-        return field != null && !field.isNull() ? field.asText() : null;
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long count() {
+            return count;
+        }
     }
 }
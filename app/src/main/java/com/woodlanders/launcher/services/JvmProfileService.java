@@ -0,0 +1,231 @@
+package com.woodlanders.launcher.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.model.JvmProfile;
+import com.woodlanders.launcher.model.JvmProfile.GarbageCollector;
+import com.woodlanders.launcher.model.JvmProfileSet;
+import com.woodlanders.launcher.model.LaunchRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chooses how the game JVM is started. Profiles live in {@code jvm-profiles.json} so players can
+ * edit them; on first use the file is created with three profiles sized from the machine's memory
+ * and processor count, and the one that suits the machine is selected. Every launch is appended to a
+ * short history together with the profile and the exact command.
+ */
+public class JvmProfileService {
+    private static final Logger LOG = LoggerFactory.getLogger(JvmProfileService.class);
+    static final String LOW_MEMORY = "low-memory";
+    static final String BALANCED = "balanced";
+    static final String PERFORMANCE = "performance";
+    private static final long MB = 1024 * 1024;
+    private static final int HISTORY_LIMIT = 100;
+
+    private final ObjectMapper objectMapper;
+    private final Path profilesPath;
+    private final Path historyPath;
+
+    public JvmProfileService(ObjectMapper objectMapper) {
+        this(objectMapper, LauncherPaths.jvmProfilesPath(), LauncherPaths.launchHistoryPath());
+    }
+
+    public JvmProfileService(ObjectMapper objectMapper, Path profilesPath, Path historyPath) {
+        this.objectMapper = objectMapper;
+        this.profilesPath = profilesPath;
+        this.historyPath = historyPath;
+    }
+
+    /**
+     * Returns the profile named by {@link LauncherSettings#jvmProfile()}, or else the one selected in
+     * the profiles file, creating the file with detected defaults when it does not exist yet.
+     */
+    public synchronized JvmProfile selectedProfile() {
+        JvmProfileSet profiles = loadOrCreate();
+        String override = LauncherSettings.jvmProfile();
+        String name = override != null ? override : profiles.selected();
+        return profiles.find(name).orElseGet(() -> {
+            LOG.warn("Unknown JVM profile '{}'; using {}", name, profiles.profiles().get(0).name());
+            return profiles.profiles().get(0);
+        });
+    }
+
+    /**
+     * The {@code java} executable for {@code profile}: its explicit runtime if set, otherwise the one
+     * found through {@code JAVA_HOME} or {@code PATH}.
+     */
+    public String javaExecutable(JvmProfile profile) {
+        if (profile.javaRuntime() != null && !profile.javaRuntime().isBlank()) {
+            return profile.javaRuntime();
+        }
+        return detectJavaRuntime();
+    }
+
+    /**
+     * JVM options for {@code profile}, to be placed before {@code -jar}.
+     */
+    public static List<String> jvmOptions(JvmProfile profile) {
+        List<String> options = new ArrayList<>();
+        if (profile.minHeapMegabytes() > 0) {
+            options.add("-Xms" + profile.minHeapMegabytes() + "m");
+        }
+        if (profile.maxHeapMegabytes() > 0) {
+            options.add("-Xmx" + profile.maxHeapMegabytes() + "m");
+        }
+        options.addAll(profile.garbageCollector().options());
+        if (profile.alwaysPreTouch()) {
+            options.add("-XX:+AlwaysPreTouch");
+        }
+        if (profile.largePages()) {
+            // Transparent huge pages need no system configuration, unlike -XX:+UseLargePages on Linux
+            options.add(isLinux() ? "-XX:+UseTransparentHugePages" : "-XX:+UseLargePages");
+        }
+        options.addAll(profile.extraArgs());
+        return options;
+    }
+
+    /**
+     * Appends {@code record} to the launch history, keeping the most recent entries only. Failures are
+     * logged; the history must never stop the game from starting.
+     */
+    public synchronized void recordLaunch(LaunchRecord record) {
+        try {
+            List<String> lines = Files.exists(historyPath)
+                    ? new ArrayList<>(Files.readAllLines(historyPath, StandardCharsets.UTF_8))
+                    : new ArrayList<>();
+            lines.add(objectMapper.writeValueAsString(record));
+            if (lines.size() > HISTORY_LIMIT) {
+                lines = lines.subList(lines.size() - HISTORY_LIMIT, lines.size());
+            }
+            Path tempPath = historyPath.resolveSibling(historyPath.getFileName() + ".tmp");
+            Files.createDirectories(historyPath.getParent());
+            Files.write(tempPath, lines, StandardCharsets.UTF_8);
+            moveIntoPlace(tempPath, historyPath);
+        } catch (IOException e) {
+            LOG.warn("Failed to record launch in {}", historyPath, e);
+        }
+    }
+
+    /**
+     * Default profiles for a machine with {@code totalMemoryBytes} of RAM and {@code processors} CPUs.
+     * The heap never exceeds half the memory, so the OS and the launcher keep room. Below 4 GB, where
+     * the low-memory profile is selected, its heap is never smaller than the quarter of memory the
+     * JVM would take without {@code -Xmx}.
+     */
+    static JvmProfileSet defaultProfiles(long totalMemoryBytes, int processors) {
+        long totalMb = Math.max(1024, totalMemoryBytes / MB);
+        long halfMb = totalMb / 2;
+        long lowHeap = clamp(totalMb / 4, 512, 1024, halfMb);
+        long balancedHeap = clamp(totalMb / 4, 1024, 4096, halfMb);
+        long performanceHeap = clamp(totalMb / 2, 2048, 8192, halfMb);
+        List<JvmProfile> profiles = List.of(
+                new JvmProfile(LOW_MEMORY, null, 0, lowHeap,
+                        processors <= 2 ? GarbageCollector.SERIAL : GarbageCollector.G1, false, false, List.of()),
+                new JvmProfile(BALANCED, null, balancedHeap / 2, balancedHeap, GarbageCollector.G1,
+                        false, false, List.of()),
+                new JvmProfile(PERFORMANCE, null, performanceHeap, performanceHeap, GarbageCollector.G1,
+                        true, isLinux(), List.of()));
+        String selected = totalMb < 4096 ? LOW_MEMORY
+                : totalMb >= 16384 && processors >= 8 ? PERFORMANCE
+                : BALANCED;
+        return new JvmProfileSet(selected, profiles);
+    }
+
+    private JvmProfileSet loadOrCreate() {
+        if (Files.exists(profilesPath)) {
+            try {
+                JvmProfileSet profiles = objectMapper.readValue(profilesPath.toFile(), JvmProfileSet.class);
+                if (profiles != null && !profiles.profiles().isEmpty()) {
+                    return profiles;
+                }
+                LOG.warn("{} defines no profiles; using detected defaults", profilesPath);
+            } catch (IOException e) {
+                LOG.warn("Failed to parse JVM profiles at {}; using detected defaults", profilesPath, e);
+            }
+            return detectDefaults();
+        }
+        JvmProfileSet defaults = detectDefaults();
+        try {
+            Files.createDirectories(profilesPath.getParent());
+            Path tempPath = profilesPath.resolveSibling(profilesPath.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tempPath.toFile(), defaults);
+            moveIntoPlace(tempPath, profilesPath);
+            LOG.info("Created JVM profiles at {} with '{}' selected", profilesPath, defaults.selected());
+        } catch (IOException e) {
+            LOG.warn("Failed to write default JVM profiles to {}", profilesPath, e);
+        }
+        return defaults;
+    }
+
+    private static JvmProfileSet detectDefaults() {
+        return defaultProfiles(totalMemoryBytes(), Runtime.getRuntime().availableProcessors());
+    }
+
+    private static long totalMemoryBytes() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean extended) {
+            return extended.getTotalMemorySize();
+        }
+        // The default maximum heap is a quarter of physical memory
+        return Runtime.getRuntime().maxMemory() * 4;
+    }
+
+    private static String detectJavaRuntime() {
+        String executable = isWindows() ? "java.exe" : "java";
+        String javaHome = System.getenv("JAVA_HOME");
+        if (javaHome != null && !javaHome.isBlank()) {
+            Path candidate = Path.of(javaHome, "bin", executable);
+            if (Files.isExecutable(candidate)) {
+                return candidate.toString();
+            }
+        }
+        String searchPath = System.getenv("PATH");
+        if (searchPath != null) {
+            for (String directory : searchPath.split(File.pathSeparator)) {
+                if (directory.isBlank()) {
+                    continue;
+                }
+                Path candidate = Path.of(directory, executable);
+                if (Files.isExecutable(candidate)) {
+                    return candidate.toString();
+                }
+            }
+        }
+        return "java";
+    }
+
+    private static long clamp(long value, long min, long max, long ceiling) {
+        return Math.min(Math.max(min, Math.min(max, value)), Math.max(256, ceiling));
+    }
+
+    private static boolean isLinux() {
+        return System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("linux");
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("win");
+    }
+
+    private static void moveIntoPlace(Path tempPath, Path target) throws IOException {
+        try {
+            Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.woodlanders.launcher.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.model.LaunchRecord;
+import com.woodlanders.launcher.util.Lazy;
+import com.woodlanders.launcher.util.ObjectMapperFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The launcher's service graph, shared by the JavaFX window and the command line. Every service is
+ * created on first use, so a caller only pays for Jackson, the HTTP client and the rest of the graph
+ * once it actually needs them.
+ */
+public final class LauncherServices implements AutoCloseable {
+    public static final String USER_AGENT = "woodlanders-launcher/0.1.0 (+https://gcclinux.github.io/woodlanders/)";
+
+    private final Lazy<ObjectMapper> objectMapper = Lazy.of(ObjectMapperFactory::create);
+    private final Lazy<HttpClient> httpClient = Lazy.of(() -> HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(15))
+            .build());
+    private final Lazy<GithubReleaseService> githubService = Lazy.of(() ->
+            new GithubReleaseService(httpClient.get(), objectMapper.get(), USER_AGENT));
+    private final Lazy<VersionService> versionService = Lazy.of(() -> new VersionService(objectMapper.get()));
+    private final Lazy<ClientStore> clientStore = Lazy.of(ClientStore::new);
+    private final Lazy<UpdateService> updateService = Lazy.of(() -> new UpdateService(
+            new DownloadService(httpClient.get(), USER_AGENT, new DownloadJournalStore(objectMapper.get()),
+                    clientStore.get(), LauncherSettings.downloadSegments()),
+            versionService.get(), clientStore.get(), this::runningClients));
+    private final Lazy<UpdateService> stagingService = Lazy.of(() -> new UpdateService(
+            new DownloadService(httpClient.get(), USER_AGENT, new DownloadJournalStore(objectMapper.get()),
+                    clientStore.get(), 1, BandwidthLimiter.of(LauncherSettings.stagingBandwidthBytesPerSecond())),
+            versionService.get(), clientStore.get(), this::runningClients));
+    private final Lazy<GameSessionSupervisor> sessionSupervisor = Lazy.of(() ->
+            new GameSessionSupervisor(objectMapper.get()));
+    private final Lazy<GameLaunchService> gameLaunchService = Lazy.of(() ->
+            new GameLaunchService(clientStore.get(), LauncherSettings.clientClassDataSharing(),
+                    new JvmProfileService(objectMapper.get())));
+
+    public ObjectMapper objectMapper() {
+        return objectMapper.get();
+    }
+
+    public GithubReleaseService githubService() {
+        return githubService.get();
+    }
+
+    public VersionService versionService() {
+        return versionService.get();
+    }
+
+    public ClientStore clientStore() {
+        return clientStore.get();
+    }
+
+    /**
+     * Installs in the foreground, with the configured number of download segments.
+     */
+    public UpdateService updateService() {
+        return updateService.get();
+    }
+
+    /**
+     * Stages releases in the background over a single, bandwidth-capped connection.
+     */
+    public UpdateService stagingService() {
+        return stagingService.get();
+    }
+
+    public GameLaunchService gameLaunchService() {
+        return gameLaunchService.get();
+    }
+
+    public GameSessionSupervisor sessionSupervisor() {
+        return sessionSupervisor.get();
+    }
+
+    /**
+     * Returns the games started through {@link #gameLaunchService()} that are still running.
+     */
+    private List<LaunchRecord> runningClients() {
+        return gameLaunchService.isInitialized() ? gameLaunchService.get().runningClients() : List.of();
+    }
+
+    /**
+     * Stops the session supervisor if it was started; nothing else holds threads.
+     */
+    @Override
+    public void close() {
+        if (sessionSupervisor.isInitialized()) {
+            sessionSupervisor.get().close();
+        }
+    }
+}
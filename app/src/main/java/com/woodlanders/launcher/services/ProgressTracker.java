@@ -0,0 +1,97 @@
+package com.woodlanders.launcher.services;
+
+import com.woodlanders.launcher.model.DownloadProgress;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Turns the writes of all segments of a download into {@link DownloadProgress} snapshots. Writes
+ * only bump a counter; a snapshot is built and handed to the listener at most once per interval,
+ * on whichever writing thread notices the interval has passed, so a fast transfer cannot flood the
+ * listener. The smoothed rate is an exponential moving average with a three second time constant.
+ */
+final class ProgressTracker {
+    static final long DEFAULT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final double SMOOTHING_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+    private final long totalBytes;
+    private final Consumer<DownloadProgress> listener;
+    private final long intervalNanos;
+    private final AtomicLong transferred = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private volatile long nextPublishNanos = startNanos;
+    private long initialBytes;
+    private long lastBytes;
+    private long lastNanos = startNanos;
+    private double smoothedRate = -1;
+
+    ProgressTracker(long totalBytes, Consumer<DownloadProgress> listener, long intervalNanos) {
+        this.totalBytes = totalBytes;
+        this.listener = listener;
+        this.intervalNanos = intervalNanos;
+    }
+
+    ProgressTracker(long totalBytes, Consumer<DownloadProgress> listener) {
+        this(totalBytes, listener, DEFAULT_INTERVAL_NANOS);
+    }
+
+    /**
+     * Sets the bytes already on disk, at the start of a resumed transfer or after the server replaced
+     * it with a full body. They count towards progress but not towards the rate.
+     */
+    synchronized void restart(long completedBytes) {
+        transferred.set(completedBytes);
+        initialBytes = completedBytes;
+        lastBytes = completedBytes;
+        lastNanos = System.nanoTime();
+    }
+
+    void advance(long bytes) {
+        transferred.addAndGet(bytes);
+        long now = System.nanoTime();
+        if (now - nextPublishNanos < 0) {
+            return;
+        }
+        DownloadProgress progress;
+        synchronized (this) {
+            if (now - nextPublishNanos < 0) {
+                return;
+            }
+            nextPublishNanos = now + intervalNanos;
+            progress = snapshot(now, false);
+        }
+        listener.accept(progress);
+    }
+
+    /**
+     * Publishes the final snapshot and returns the average rate of the bytes transferred by this
+     * attempt, for the version record.
+     */
+    long finish() {
+        long now = System.nanoTime();
+        long elapsed = Math.max(1, now - startNanos);
+        DownloadProgress progress;
+        long average;
+        synchronized (this) {
+            progress = snapshot(now, true);
+            average = (long) ((transferred.get() - initialBytes) * 1e9 / elapsed);
+        }
+        listener.accept(progress);
+        return average;
+    }
+
+    private DownloadProgress snapshot(long now, boolean complete) {
+        long bytes = transferred.get();
+        long elapsed = now - lastNanos;
+        long rate = elapsed > 0 ? (long) ((bytes - lastBytes) * 1e9 / elapsed) : 0;
+        if (elapsed > 0) {
+            double weight = 1 - Math.exp(-elapsed / SMOOTHING_NANOS);
+            smoothedRate = smoothedRate < 0 ? rate : smoothedRate + weight * (rate - smoothedRate);
+        }
+        lastBytes = bytes;
+        lastNanos = now;
+        return new DownloadProgress(bytes, totalBytes, Math.max(0, rate), Math.max(0, (long) smoothedRate), complete);
+    }
+}
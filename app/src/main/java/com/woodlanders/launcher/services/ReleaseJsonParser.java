@@ -0,0 +1,153 @@
+package com.woodlanders.launcher.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.woodlanders.launcher.model.ReleaseInfo;
+import com.woodlanders.launcher.model.ReleasePatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Token-level reader for GitHub release payloads. It consumes the response stream in one pass,
+ * skips every field the launcher does not use without materializing it, and stops reading as soon
+ * as the tag and the asset list are known, which leaves the (often large) release notes unread.
+ */
+public final class ReleaseJsonParser {
+    private static final Logger LOG = LoggerFactory.getLogger(ReleaseJsonParser.class);
+    static final String TARGET_ASSET_NAME = "woodlanders-client.jar";
+    private static final Pattern PATCH_ASSET_NAME = Pattern.compile("woodlanders-client-from-([0-9a-fA-F]{12,64})\\.patch");
+    private static final String SHA256_DIGEST_PREFIX = "sha256:";
+
+    private final JsonFactory jsonFactory;
+
+    public ReleaseJsonParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Parses a single release object such as the {@code /releases/latest} response.
+     */
+    public Optional<ReleaseInfo> parseRelease(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                LOG.warn("Release response was not a JSON object");
+                return Optional.empty();
+            }
+            return readRelease(parser, true);
+        }
+    }
+
+    /**
+     * Parses a page of the {@code /releases} listing, keeping every release that ships a jar.
+     */
+    public List<ReleaseInfo> parseReleaseList(InputStream body) throws IOException {
+        List<ReleaseInfo> releases = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                LOG.warn("Release list response was not a JSON array");
+                return releases;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                readRelease(parser, false).ifPresent(releases::add);
+            }
+        }
+        return releases;
+    }
+
+    /**
+     * Reads the release object the parser is positioned on. With {@code stopEarly} the method returns
+     * once the tag and the whole asset list are known and leaves the rest of the stream unread;
+     * otherwise it always consumes the object up to its closing brace so the caller can continue
+     * with the next one.
+     */
+    private Optional<ReleaseInfo> readRelease(JsonParser parser, boolean stopEarly) throws IOException {
+        String tagName = null;
+        Asset target = null;
+        Asset fallback = null;
+        List<ReleasePatch> patches = new ArrayList<>();
+        boolean sawAssets = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("tag_name".equals(field)) {
+                tagName = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+            } else if ("assets".equals(field) && value == JsonToken.START_ARRAY) {
+                sawAssets = true;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Asset asset = readAsset(parser);
+                    if (asset.name() == null) {
+                        continue;
+                    }
+                    Matcher patch = PATCH_ASSET_NAME.matcher(asset.name());
+                    if (patch.matches() && asset.downloadUrl() != null) {
+                        patches.add(new ReleasePatch(patch.group(1), URI.create(asset.downloadUrl()), asset.size()));
+                    } else if (TARGET_ASSET_NAME.equals(asset.name())) {
+                        target = asset;
+                    } else if (asset.name().endsWith(".jar")) {
+                        fallback = asset;
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            if (stopEarly && sawAssets && tagName != null) {
+                break;
+            }
+        }
+        if (tagName == null || tagName.isBlank()) {
+            LOG.warn("Release response did not contain a tag_name");
+            return Optional.empty();
+        }
+        if (!sawAssets) {
+            LOG.warn("Release {} did not contain any assets", tagName);
+            return Optional.empty();
+        }
+        Asset selected = target != null ? target : fallback;
+        return selected == null ? Optional.empty() : Optional.of(buildReleaseInfo(tagName, selected, patches));
+    }
+
+    private Asset readAsset(JsonParser parser) throws IOException {
+        String name = null;
+        String downloadUrl = null;
+        long size = 0;
+        String sha256 = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> name = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                case "browser_download_url" -> downloadUrl = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                case "size" -> size = parser.getValueAsLong();
+                case "digest" -> sha256 = sha256FromDigest(value == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return new Asset(name, downloadUrl, size, sha256);
+    }
+
+    private static String sha256FromDigest(String digest) {
+        return digest != null && digest.startsWith(SHA256_DIGEST_PREFIX)
+                ? digest.substring(SHA256_DIGEST_PREFIX.length())
+                : null;
+    }
+
+    private ReleaseInfo buildReleaseInfo(String tagName, Asset asset, List<ReleasePatch> patches) {
+        if (asset.downloadUrl() == null || asset.downloadUrl().isBlank()) {
+            throw new IllegalStateException("Asset missing browser_download_url");
+        }
+        return new ReleaseInfo(tagName, URI.create(asset.downloadUrl()), asset.size(), asset.sha256(), patches);
+    }
+
+    private record Asset(String name, String downloadUrl, long size, String sha256) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.woodlanders.launcher.services;
+
+import com.woodlanders.launcher.model.DownloadJournal.ByteRange;
+import com.woodlanders.launcher.util.Hashing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe bookkeeping of which byte ranges of a transfer have reached the target file.
+ * Segment subscribers report every write; the download service turns the result into a journal.
+ *
+ * <p>The SHA-256 of the file is computed on the fly. Buffers that land exactly at the digest
+ * frontier are hashed straight from memory; bytes that another segment wrote ahead of the frontier
+ * are read back once the frontier reaches them, while they are still hot in the page cache.
+ */
+final class TransferState {
+    private static final int CATCH_UP_BUFFER_SIZE = 64 * 1024;
+
+    private final TreeMap<Long, Long> completed = new TreeMap<>();
+    private final MessageDigest digest = Hashing.newSha256();
+    private final long checkpointInterval;
+    private final Consumer<TransferState> checkpointListener;
+    private long bytesSinceCheckpoint;
+    private FileChannel source;
+    private ByteBuffer catchUpBuffer;
+    private long digestedUpTo;
+    private long bytesReadBack;
+    private volatile String etag;
+    private volatile ProgressTracker progress;
+
+    TransferState(List<ByteRange> alreadyCompleted, long checkpointInterval, Consumer<TransferState> checkpointListener) {
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointListener = checkpointListener;
+        for (ByteRange range : alreadyCompleted) {
+            merge(range.start(), range.end());
+        }
+    }
+
+    /**
+     * Enables hashing against the file the transfer writes into; previously completed ranges are
+     * read back lazily as the digest frontier passes them.
+     */
+    synchronized void hashFrom(FileChannel channel) {
+        this.source = channel;
+    }
+
+    /**
+     * Reports every write to {@code progress}, starting from the bytes already completed.
+     */
+    synchronized void trackProgress(ProgressTracker progress) {
+        progress.restart(completedBytes());
+        this.progress = progress;
+    }
+
+    /**
+     * Records {@code written}, whose remaining bytes were just stored at {@code position}.
+     */
+    void recordWritten(long position, ByteBuffer written) throws IOException {
+        long length = written.remaining();
+        if (length <= 0) {
+            return;
+        }
+        boolean checkpoint;
+        synchronized (this) {
+            merge(position, position + length);
+            if (source != null) {
+                if (position == digestedUpTo) {
+                    digest.update(written);
+                    digestedUpTo += length;
+                }
+                catchUp(completedEndAt(digestedUpTo));
+            }
+            bytesSinceCheckpoint += length;
+            checkpoint = bytesSinceCheckpoint >= checkpointInterval;
+            if (checkpoint) {
+                bytesSinceCheckpoint = 0;
+            }
+        }
+        if (checkpoint) {
+            checkpointListener.accept(this);
+        }
+        ProgressTracker tracker = progress;
+        if (tracker != null) {
+            tracker.advance(length);
+        }
+    }
+
+    /**
+     * Forgets all progress, used when the server replaces a resumed transfer with a full body.
+     */
+    synchronized void reset() {
+        completed.clear();
+        bytesSinceCheckpoint = 0;
+        digest.reset();
+        digestedUpTo = 0;
+        if (progress != null) {
+            progress.restart(0);
+        }
+    }
+
+    /**
+     * Hashes whatever the frontier has not reached yet and returns the hex SHA-256 of the first
+     * {@code size} bytes of the file.
+     */
+    synchronized String finishDigest(long size) throws IOException {
+        if (source == null) {
+            throw new IllegalStateException("Hashing was not enabled for this transfer");
+        }
+        catchUp(size);
+        return Hashing.toHex(digest.digest());
+    }
+
+    synchronized long bytesReadBack() {
+        return bytesReadBack;
+    }
+
+    synchronized List<ByteRange> completedRanges() {
+        List<ByteRange> ranges = new ArrayList<>(completed.size());
+        completed.forEach((start, end) -> ranges.add(new ByteRange(start, end)));
+        return ranges;
+    }
+
+    synchronized List<ByteRange> missingRanges(long totalSize) {
+        List<ByteRange> missing = new ArrayList<>();
+        long cursor = 0;
+        for (Map.Entry<Long, Long> entry : completed.entrySet()) {
+            if (entry.getKey() >= totalSize) {
+                break;
+            }
+            if (entry.getKey() > cursor) {
+                missing.add(new ByteRange(cursor, entry.getKey()));
+            }
+            cursor = Math.max(cursor, entry.getValue());
+        }
+        if (cursor < totalSize) {
+            missing.add(new ByteRange(cursor, totalSize));
+        }
+        return missing;
+    }
+
+    synchronized long completedBytes() {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : completed.entrySet()) {
+            total += entry.getValue() - entry.getKey();
+        }
+        return total;
+    }
+
+    String etag() {
+        return etag;
+    }
+
+    void etag(String etag) {
+        this.etag = etag;
+    }
+
+    private long completedEndAt(long position) {
+        Map.Entry<Long, Long> entry = completed.floorEntry(position);
+        return entry != null ? Math.max(position, entry.getValue()) : position;
+    }
+
+    private void catchUp(long end) throws IOException {
+        if (digestedUpTo >= end) {
+            return;
+        }
+        if (catchUpBuffer == null) {
+            catchUpBuffer = ByteBuffer.allocate(CATCH_UP_BUFFER_SIZE);
+        }
+        while (digestedUpTo < end) {
+            catchUpBuffer.clear().limit((int) Math.min(catchUpBuffer.capacity(), end - digestedUpTo));
+            int read = source.read(catchUpBuffer, digestedUpTo);
+            if (read < 0) {
+                throw new IOException("File ended at " + digestedUpTo + " before the expected " + end + " bytes");
+            }
+            catchUpBuffer.flip();
+            digest.update(catchUpBuffer);
+            digestedUpTo += read;
+            bytesReadBack += read;
+        }
+    }
+
+    private void merge(long start, long end) {
+        Map.Entry<Long, Long> floor = completed.floorEntry(start);
+        if (floor != null && floor.getValue() >= start) {
+            start = floor.getKey();
+            end = Math.max(end, floor.getValue());
+        }
+        Map.Entry<Long, Long> next = completed.ceilingEntry(start);
+        while (next != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            completed.remove(next.getKey());
+            next = completed.ceilingEntry(start);
+        }
+        completed.put(start, end);
+    }
+}
@@ -0,0 +1,190 @@
+package com.woodlanders.launcher.services;
+
+import com.woodlanders.launcher.metrics.LauncherMetrics;
+import com.woodlanders.launcher.model.ClientSource;
+import com.woodlanders.launcher.model.DownloadProgress;
+import com.woodlanders.launcher.model.DownloadResult;
+import com.woodlanders.launcher.model.LaunchRecord;
+import com.woodlanders.launcher.model.ReleaseInfo;
+import com.woodlanders.launcher.model.VersionMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Installs and switches client versions on top of the {@link ClientStore}. A version that is already
+ * held in the store is reactivated without touching the network; anything else is downloaded first.
+ * Releases can also be staged while the game runs and activated by {@link #activatePending()} later.
+ * Versions that a running game was started from are never evicted from the store.
+ */
+public class UpdateService {
+    private static final Logger LOG = LoggerFactory.getLogger(UpdateService.class);
+
+    private final DownloadService downloadService;
+    private final VersionService versionService;
+    private final ClientStore clientStore;
+    private final Supplier<List<LaunchRecord>> runningClients;
+
+    public UpdateService(DownloadService downloadService, VersionService versionService, ClientStore clientStore) {
+        this(downloadService, versionService, clientStore, List::of);
+    }
+
+    /**
+     * @param runningClients the games currently running, normally {@link GameLaunchService#runningClients()}
+     */
+    public UpdateService(DownloadService downloadService, VersionService versionService, ClientStore clientStore,
+                         Supplier<List<LaunchRecord>> runningClients) {
+        this.downloadService = downloadService;
+        this.versionService = versionService;
+        this.clientStore = clientStore;
+        this.runningClients = runningClients;
+    }
+
+    /**
+     * Makes {@code release} the active client, downloading it only when the store does not hold it yet,
+     * and then preferring a patch against the active client over the full jar.
+     */
+    public VersionMetadata install(ReleaseInfo release) throws IOException, InterruptedException {
+        return install(release, progress -> { });
+    }
+
+    /**
+     * Like {@link #install(ReleaseInfo)}, reporting the progress of a full download to {@code progress}.
+     */
+    public VersionMetadata install(ReleaseInfo release, Consumer<DownloadProgress> progress)
+            throws IOException, InterruptedException {
+        Optional<VersionMetadata> held = findHeld(release.tagName());
+        if (held.isPresent()) {
+            LOG.info("Version {} is already in the client store; switching without a download", release.tagName());
+            LauncherMetrics.CLIENT_SOURCES.increment(ClientSource.STORE);
+            return activate(held.get());
+        }
+        String activeSha256 = versionService.readMetadata().map(VersionMetadata::sha256).orElse(null);
+        DownloadResult result = downloadService.downloadRelease(release, activeSha256, progress);
+        VersionMetadata metadata = new VersionMetadata(release.tagName(), result.sha256(), Instant.now(), result.size(),
+                result.bytesPerSecond());
+        versionService.recordInstalled(metadata);
+        versionService.writeMetadata(metadata);
+        versionService.clearPending();
+        pruneStore(metadata);
+        return metadata;
+    }
+
+    /**
+     * Downloads {@code release} into the store without touching the active client, which may be
+     * running, and records it as pending so the next {@link #activatePending()} switches to it.
+     */
+    public VersionMetadata stage(ReleaseInfo release) throws IOException, InterruptedException {
+        Optional<VersionMetadata> held = findHeld(release.tagName());
+        if (held.isPresent()) {
+            LauncherMetrics.CLIENT_SOURCES.increment(ClientSource.STORE);
+            versionService.writePending(held.get());
+            return held.get();
+        }
+        String activeSha256 = versionService.readMetadata().map(VersionMetadata::sha256).orElse(null);
+        DownloadResult result = downloadService.stageRelease(release, activeSha256);
+        VersionMetadata metadata = new VersionMetadata(release.tagName(), result.sha256(), Instant.now(), result.size(),
+                result.bytesPerSecond());
+        versionService.recordInstalled(metadata);
+        versionService.writePending(metadata);
+        LOG.info("Staged version {} for the next start", release.tagName());
+        return metadata;
+    }
+
+    /**
+     * Activates the staged version, if there is one and the store still holds it. While a game is
+     * running nothing changes and the version stays pending, so the active client is never swapped
+     * under it.
+     */
+    public Optional<VersionMetadata> activatePending() throws IOException {
+        Optional<VersionMetadata> pending = versionService.readPending();
+        if (pending.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!runningClients.get().isEmpty()) {
+            LOG.info("Keeping version {} staged while the game is running", pending.get().version());
+            return Optional.empty();
+        }
+        versionService.clearPending();
+        Optional<VersionMetadata> held = findHeld(pending.get().version());
+        if (held.isEmpty()) {
+            LOG.warn("Pending version {} is no longer in the client store", pending.get().version());
+            return Optional.empty();
+        }
+        VersionMetadata metadata = activate(held.get());
+        LOG.info("Activated staged version {}", metadata.version());
+        pruneStore(metadata);
+        return Optional.of(metadata);
+    }
+
+    /**
+     * Switches to a previously installed version, e.g. to roll back. Returns empty when the version is
+     * not held locally.
+     */
+    public Optional<VersionMetadata> switchTo(String version) throws IOException {
+        Optional<VersionMetadata> held = findHeld(version);
+        if (held.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(activate(held.get()));
+    }
+
+    /**
+     * Registers the client jar left behind by launchers that predate the store, so it can be switched
+     * back to later. Safe to call on every start.
+     */
+    public void adoptLegacyClient() {
+        Optional<VersionMetadata> current = versionService.readMetadata();
+        if (current.isEmpty() || current.get().sha256() == null
+                || versionService.findInstalled(current.get().version()).isPresent()) {
+            return;
+        }
+        try {
+            if (clientStore.adoptActive(current.get().sha256())) {
+                versionService.recordInstalled(current.get());
+                LOG.info("Moved client {} into the client store", current.get().version());
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to move the existing client into the store", e);
+        }
+    }
+
+    /**
+     * Evicts old versions once the store outgrows its quota and drops them from the version index,
+     * keeping the active version and those of running games. Failures only cost disk space, so they
+     * are logged rather than failing the install.
+     */
+    private void pruneStore(VersionMetadata active) {
+        try {
+            List<String> keep = new ArrayList<>();
+            keep.add(active.sha256());
+            runningClients.get().forEach(running -> keep.add(running.clientSha256()));
+            List<String> evicted = clientStore.evictLeastRecentlyUsed(keep.toArray(String[]::new));
+            for (VersionMetadata entry : versionService.installedVersions()) {
+                if (evicted.contains(entry.sha256())) {
+                    versionService.removeInstalled(entry.version());
+                    LOG.info("Evicted version {} from the client store", entry.version());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to prune the client store", e);
+        }
+    }
+
+    private Optional<VersionMetadata> findHeld(String version) {
+        return versionService.findInstalled(version).filter(entry -> clientStore.contains(entry.sha256()));
+    }
+
+    private VersionMetadata activate(VersionMetadata metadata) throws IOException {
+        clientStore.activate(metadata.sha256());
+        versionService.writeMetadata(metadata);
+        return metadata;
+    }
+}
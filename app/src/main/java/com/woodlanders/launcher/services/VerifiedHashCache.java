@@ -0,0 +1,120 @@
+package com.woodlanders.launcher.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which files have already been hashed, keyed on their metadata, so large cached archives
+ * are not re-read on every build. Each directory keeps a small sidecar that maps a file name to the
+ * size, modification time and file key observed when its SHA-256 was verified; a lookup only
+ * succeeds while all three are unchanged.
+ *
+ * <p>A file modified within the same timestamp tick as its verification could keep its old mtime,
+ * so files whose mtime is too close to the time of recording are not remembered (the same "racily
+ * clean" rule git applies to its index).
+ */
+final class VerifiedHashCache {
+    static final String SIDECAR_NAME = ".verified-sha256";
+    private static final Duration RACY_WINDOW = Duration.ofSeconds(2);
+    private static final String NO_FILE_KEY = "-";
+
+    /**
+     * Returns the previously verified SHA-256 of {@code file} if its metadata has not changed since.
+     */
+    Optional<String> lookup(Path file) {
+        try {
+            String recorded = load(sidecarOf(file)).getProperty(file.getFileName().toString());
+            if (recorded == null) {
+                return Optional.empty();
+            }
+            int split = recorded.lastIndexOf(' ');
+            if (split < 0 || !recorded.substring(0, split).equals(fingerprint(file))) {
+                return Optional.empty();
+            }
+            return Optional.of(recorded.substring(split + 1));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Records that {@code file} currently hashes to {@code sha256}. Failures are ignored; the cache is
+     * only an optimisation.
+     */
+    void record(Path file, String sha256) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            Instant modified = attributes.lastModifiedTime().toInstant();
+            if (modified.isAfter(Instant.now().minus(RACY_WINDOW))) {
+                return;
+            }
+            update(file, fingerprint(attributes) + " " + sha256);
+        } catch (IOException e) {
+            // not remembered; the next check simply hashes the file again
+        }
+    }
+
+    void forget(Path file) {
+        try {
+            update(file, null);
+        } catch (IOException e) {
+            // a stale entry cannot match once the file changes, so this is best effort
+        }
+    }
+
+    private static synchronized void update(Path file, String value) throws IOException {
+        Path sidecar = sidecarOf(file);
+        Properties entries = load(sidecar);
+        String key = file.getFileName().toString();
+        if (value == null ? entries.remove(key) == null : value.equals(entries.setProperty(key, value))) {
+            return;
+        }
+        Path temp = sidecar.resolveSibling(SIDECAR_NAME + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            entries.store(out, "Verified SHA-256 by file metadata; safe to delete");
+        }
+        try {
+            Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Properties load(Path sidecar) throws IOException {
+        Properties entries = new Properties();
+        try (InputStream in = Files.newInputStream(sidecar)) {
+            entries.load(in);
+        } catch (NoSuchFileException e) {
+            // nothing verified in this directory yet
+        }
+        return entries;
+    }
+
+    private static String fingerprint(Path file) throws IOException {
+        return fingerprint(Files.readAttributes(file, BasicFileAttributes.class));
+    }
+
+    private static String fingerprint(BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        return attributes.size()
+                + " " + attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+                + " " + (fileKey != null ? fileKey.toString().replace(' ', '_') : NO_FILE_KEY);
+    }
+
+    private static Path sidecarOf(Path file) {
+        Path absolute = file.toAbsolutePath();
+        return absolute.resolveSibling(SIDECAR_NAME);
+    }
+}
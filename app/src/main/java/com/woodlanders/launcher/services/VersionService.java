@@ -2,6 +2,7 @@ package com.woodlanders.launcher.services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.diagnostics.VersionFileEvent;
 import com.woodlanders.launcher.model.VersionMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,41 +11,54 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
- * Persists the metadata that describes the cached client JAR.
+ * Persists the metadata that describes the active client JAR, plus an index of every version held
+ * in the {@link ClientStore} so that previously downloaded versions can be reactivated offline.
+ * A version downloaded in the background is recorded as pending until the launcher activates it.
  */
 public class VersionService {
     private static final Logger LOG = LoggerFactory.getLogger(VersionService.class);
 
     private final ObjectMapper objectMapper;
     private final Path metadataPath;
+    private final Path indexPath;
+    private final Path pendingPath;
 
     public VersionService(ObjectMapper objectMapper) {
-        this(objectMapper, LauncherPaths.versionMetadataPath());
+        this(objectMapper, LauncherPaths.versionMetadataPath(), LauncherPaths.versionIndexPath(),
+                LauncherPaths.pendingVersionPath());
     }
 
     public VersionService(ObjectMapper objectMapper, Path metadataPath) {
+        this(objectMapper, metadataPath, metadataPath.resolveSibling("versions.json"));
+    }
+
+    public VersionService(ObjectMapper objectMapper, Path metadataPath, Path indexPath) {
+        this(objectMapper, metadataPath, indexPath, metadataPath.resolveSibling("pending.json"));
+    }
+
+    public VersionService(ObjectMapper objectMapper, Path metadataPath, Path indexPath, Path pendingPath) {
         this.objectMapper = objectMapper;
         this.metadataPath = metadataPath;
+        this.indexPath = indexPath;
+        this.pendingPath = pendingPath;
     }
 
     public Optional<VersionMetadata> readMetadata() {
-        if (!Files.exists(metadataPath)) {
-            return Optional.empty();
-        }
-        try (Reader reader = Files.newBufferedReader(metadataPath, StandardCharsets.UTF_8)) {
-            return Optional.ofNullable(objectMapper.readValue(reader, VersionMetadata.class));
-        } catch (IOException e) {
-            LOG.warn("Failed to parse version metadata at {}", metadataPath, e);
-            return Optional.empty();
-        }
+        return read(metadataPath, "version metadata");
     }
 
     public void writeMetadata(VersionMetadata metadata) throws IOException {
+        VersionFileEvent event = new VersionFileEvent();
+        event.begin();
         Path parent = metadataPath.getParent();
         if (parent != null) {
             Files.createDirectories(parent);
@@ -52,5 +66,116 @@ public class VersionService {
         try (Writer writer = Files.newBufferedWriter(metadataPath, StandardCharsets.UTF_8)) {
             objectMapper.writeValue(writer, metadata);
         }
+        event.commit("write", metadataPath);
+    }
+
+    /**
+     * Returns the version staged for activation on the next start, if any.
+     */
+    public Optional<VersionMetadata> readPending() {
+        return read(pendingPath, "pending version");
+    }
+
+    /**
+     * Marks {@code metadata}, which must already be held in the store, as the version to activate next.
+     */
+    public synchronized void writePending(VersionMetadata metadata) throws IOException {
+        VersionFileEvent event = new VersionFileEvent();
+        event.begin();
+        Path parent = pendingPath.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tempPath = pendingPath.resolveSibling(pendingPath.getFileName() + ".tmp");
+        objectMapper.writeValue(tempPath.toFile(), metadata);
+        moveIntoPlace(tempPath, pendingPath);
+        event.commit("write", pendingPath);
+    }
+
+    public synchronized void clearPending() throws IOException {
+        Files.deleteIfExists(pendingPath);
+    }
+
+    /**
+     * Lists every installed version, most recently downloaded first.
+     */
+    public synchronized List<VersionMetadata> installedVersions() {
+        if (!Files.exists(indexPath)) {
+            return List.of();
+        }
+        VersionFileEvent event = new VersionFileEvent();
+        event.begin();
+        try {
+            VersionMetadata[] entries = objectMapper.readValue(indexPath.toFile(), VersionMetadata[].class);
+            event.commit("read", indexPath);
+            return entries == null ? List.of() : List.of(entries);
+        } catch (IOException e) {
+            LOG.warn("Failed to parse version index at {}", indexPath, e);
+            return List.of();
+        }
+    }
+
+    public Optional<VersionMetadata> findInstalled(String version) {
+        return installedVersions().stream()
+                .filter(entry -> entry.version().equals(version))
+                .findFirst();
+    }
+
+    /**
+     * Adds or replaces the index entry for {@code metadata.version()}.
+     */
+    public synchronized void recordInstalled(VersionMetadata metadata) throws IOException {
+        List<VersionMetadata> entries = new ArrayList<>();
+        entries.add(metadata);
+        for (VersionMetadata entry : installedVersions()) {
+            if (!entry.version().equals(metadata.version())) {
+                entries.add(entry);
+            }
+        }
+        writeIndex(entries);
+    }
+
+    public synchronized void removeInstalled(String version) throws IOException {
+        List<VersionMetadata> entries = new ArrayList<>(installedVersions());
+        if (entries.removeIf(entry -> entry.version().equals(version))) {
+            writeIndex(entries);
+        }
+    }
+
+    private void writeIndex(List<VersionMetadata> entries) throws IOException {
+        VersionFileEvent event = new VersionFileEvent();
+        event.begin();
+        Path parent = indexPath.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tempPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        objectMapper.writeValue(tempPath.toFile(), entries.toArray(VersionMetadata[]::new));
+        moveIntoPlace(tempPath, indexPath);
+        event.commit("write", indexPath);
+    }
+
+    private Optional<VersionMetadata> read(Path path, String description) {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        VersionFileEvent event = new VersionFileEvent();
+        event.begin();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            VersionMetadata metadata = objectMapper.readValue(reader, VersionMetadata.class);
+            event.commit("read", path);
+            return Optional.ofNullable(metadata);
+        } catch (IOException e) {
+            LOG.warn("Failed to parse {} at {}", description, path, e);
+            return Optional.empty();
+        }
+    }
+
+    private static void moveIntoPlace(Path tempPath, Path target) throws IOException {
+        try {
+            Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 }
@@ -1,17 +1,20 @@
 package com.woodlanders.launcher.ui;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.woodlanders.launcher.config.LauncherPaths;
-import com.woodlanders.launcher.model.DownloadResult;
+import com.woodlanders.launcher.config.LauncherSettings;
+import com.woodlanders.launcher.diagnostics.FlightRecording;
+import com.woodlanders.launcher.metrics.LauncherMetrics;
+import com.woodlanders.launcher.metrics.MetricsExporter;
+import com.woodlanders.launcher.model.DownloadProgress;
 import com.woodlanders.launcher.model.LauncherModel;
 import com.woodlanders.launcher.model.LauncherState;
 import com.woodlanders.launcher.model.ReleaseInfo;
 import com.woodlanders.launcher.model.VersionMetadata;
-import com.woodlanders.launcher.services.DownloadService;
+import com.woodlanders.launcher.services.BackgroundUpdater;
+import com.woodlanders.launcher.services.CacheManager;
 import com.woodlanders.launcher.services.GameLaunchService;
-import com.woodlanders.launcher.services.GithubReleaseService;
-import com.woodlanders.launcher.services.VersionService;
-import com.woodlanders.launcher.util.ObjectMapperFactory;
+import com.woodlanders.launcher.services.LauncherServices;
+import com.woodlanders.launcher.util.Lazy;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -20,32 +23,42 @@ import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import jdk.jfr.Recording;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Minimal JavaFX front-end that wires services together.
+ *
+ * <p>Services are created lazily on the worker threads, so the window is painted before Jackson, the
+ * HTTP client and the rest of the service graph have been loaded. The time from JVM start to the
+ * first frame is logged on every start; with {@code -Dwoodlanders.startup.training=true} the launcher
+ * quits once its startup work is done, which is how the build records a class data sharing archive
+ * for the packaged runtime.
  */
 public class LauncherApplication extends Application {
     private static final Logger LOG = LoggerFactory.getLogger(LauncherApplication.class);
-    private static final String USER_AGENT = "woodlanders-launcher/0.1.0 (+https://gcclinux.github.io/woodlanders/)";
     private static final URI PROJECT_URL = URI.create("https://gcclinux.github.io/woodlanders/");
     private static final Path JAVAFX_CACHE_DIR = determineJavaFxCacheDir();
+    private static final Duration ORPHAN_MIN_AGE = Duration.ofHours(1);
 
     static {
         try {
@@ -56,25 +69,33 @@ public class LauncherApplication extends Application {
         }
     }
 
-    private final ObjectMapper objectMapper = ObjectMapperFactory.create();
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .followRedirects(HttpClient.Redirect.NORMAL)
-            .connectTimeout(Duration.ofSeconds(15))
-            .build();
-    private final GithubReleaseService githubService = new GithubReleaseService(httpClient, objectMapper, USER_AGENT);
-    private final VersionService versionService = new VersionService(objectMapper);
-    private final DownloadService downloadService = new DownloadService(httpClient, USER_AGENT);
-    private final GameLaunchService gameLaunchService = new GameLaunchService();
-    private final ExecutorService executor = Executors.newSingleThreadExecutor(new LauncherThreadFactory());
-
+    private final LauncherServices services = new LauncherServices();
+    private final Lazy<BackgroundUpdater> backgroundUpdater = Lazy.of(() -> new BackgroundUpdater(
+            services.githubService(), services.stagingService(), services.versionService(),
+            LauncherSettings.updateCheckInterval(), this::onUpdateStaged));
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            new LauncherThreadFactory("woodlanders-launcher-worker"));
+    private final ExecutorService networkExecutor = Executors.newSingleThreadExecutor(
+            new LauncherThreadFactory("woodlanders-launcher-network"));
+
+    private Optional<Recording> flightRecording = Optional.empty();
+    private Optional<MetricsExporter> metricsExporter = Optional.empty();
     private LauncherModel currentModel = LauncherModel.checking();
     private Optional<ReleaseInfo> currentRelease = Optional.empty();
     private Optional<VersionMetadata> currentMetadata = Optional.empty();
+    private final AtomicReference<DownloadProgress> pendingProgress = new AtomicReference<>();
 
     private Button primaryButton;
     private Label statusLabel;
+    private ProgressBar progressBar;
     private Label versionLabel;
 
+    @Override
+    public void init() {
+        flightRecording = FlightRecording.startIfEnabled();
+        metricsExporter = MetricsExporter.startIfEnabled(LauncherMetrics.REGISTRY);
+    }
+
     @Override
     public void start(Stage stage) {
         stage.setTitle("Woodlanders Launcher");
@@ -85,6 +106,10 @@ public class LauncherApplication extends Application {
         statusLabel = new Label(currentModel.message());
         statusLabel.getStyleClass().add("launcher-status");
 
+        progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        showProgressBar(false);
+
         versionLabel = new Label(formatVersionText(currentModel));
         versionLabel.getStyleClass().add("launcher-version");
 
@@ -96,12 +121,12 @@ public class LauncherApplication extends Application {
         Hyperlink websiteLink = new Hyperlink("Project site: gcclinux.github.io/woodlanders");
         websiteLink.setOnAction(event -> getHostServices().showDocument(PROJECT_URL.toString()));
 
-        VBox root = new VBox(12, heading, statusLabel, primaryButton, versionLabel, websiteLink);
+        VBox root = new VBox(12, heading, statusLabel, progressBar, primaryButton, versionLabel, websiteLink);
         root.setAlignment(Pos.CENTER);
         root.setPadding(new Insets(24));
         root.setFillWidth(true);
 
-        Scene scene = new Scene(root, 460, 260);
+        Scene scene = new Scene(root, 460, 290);
         String cssPath = getClass().getResource("/application.css") != null
                 ? Objects.requireNonNull(getClass().getResource("/application.css")).toExternalForm()
                 : null;
@@ -109,30 +134,139 @@ public class LauncherApplication extends Application {
             scene.getStylesheets().add(cssPath);
         }
         stage.setScene(scene);
+        reportFirstFrame(scene);
         stage.show();
 
-        refreshState();
+        boolean launchFirst = LauncherSettings.launchFirst() && !LauncherSettings.startupTraining();
+        if (launchFirst) {
+            launchFirst();
+        } else {
+            refreshState();
+        }
+        executor.submit(() -> backgroundUpdater.get().start(launchFirst));
+        executor.submit(this::collectOrphans);
     }
 
     @Override
     public void stop() {
         executor.shutdownNow();
+        networkExecutor.shutdownNow();
+        if (backgroundUpdater.isInitialized()) {
+            backgroundUpdater.get().close();
+        }
+        services.close();
+        metricsExporter.ifPresent(MetricsExporter::close);
+        // Closing a running recording stops it, which writes it to its destination
+        flightRecording.ifPresent(Recording::close);
+    }
+
+    /**
+     * Logs the time from JVM start to the first laid-out frame. In a training run the launcher then
+     * quits as soon as the worker has finished the startup work queued before it.
+     */
+    private void reportFirstFrame(Scene scene) {
+        Runnable listener = new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                ProcessHandle.current().info().startInstant().ifPresent(started -> LOG.info(
+                        "First frame {} ms after JVM start", Duration.between(started, Instant.now()).toMillis()));
+                if (LauncherSettings.startupTraining()) {
+                    executor.submit(() -> Platform.runLater(Platform::exit));
+                }
+            }
+        };
+        scene.addPostLayoutPulseListener(listener);
+    }
+
+    /**
+     * Starts the installed client without waiting for GitHub; the {@link BackgroundUpdater} then
+     * stages any newer release for the next launch. Falls back to the normal check when no client is
+     * installed yet.
+     */
+    private void launchFirst() {
+        executor.submit(() -> {
+            LocalState local = evaluateLocal();
+            if (!local.jarExists()) {
+                refreshState();
+                return;
+            }
+            LauncherModel provisional = provisionalModel(local);
+            Platform.runLater(() -> {
+                applyModel(provisional);
+                launchClient();
+            });
+        });
     }
 
+    /**
+     * A staged update is swapped in by the next launch, so an offered foreground update becomes a
+     * plain launch.
+     */
+    private void onUpdateStaged(VersionMetadata staged) {
+        String message = "Update " + staged.version() + " downloaded; it will be used at the next launch.";
+        Platform.runLater(() -> {
+            if (currentModel.state() == LauncherState.NEEDS_UPDATE) {
+                applyModel(buildModel(LauncherState.READY_TO_LAUNCH, "Launch Woodlanders", true, message,
+                        currentModel.localVersion(), currentModel.remoteVersion()));
+            } else if (currentModel.state() != LauncherState.UPDATING) {
+                applyModel(currentModel.withMessage(message));
+            }
+        });
+    }
+
+    /**
+     * Checks the local client and GitHub concurrently. The local result is shown as soon as the disk
+     * has been read, so an installed client can be launched while the release check is still running;
+     * the remote answer then upgrades the model unless the player has already acted on it.
+     */
     private void refreshState() {
         Platform.runLater(() -> applyModel(LauncherModel.checking()));
+        CompletableFuture<Optional<ReleaseInfo>> remote = CompletableFuture
+                .supplyAsync(() -> services.githubService().fetchLatestRelease(), networkExecutor)
+                .exceptionally(error -> {
+                    LOG.warn("Release check failed", error);
+                    return Optional.empty();
+                });
         executor.submit(() -> {
-            LauncherModel evaluated = evaluateState();
-            Platform.runLater(() -> applyModel(evaluated));
+            LocalState local = evaluateLocal();
+            LauncherModel provisional = provisionalModel(local);
+            Platform.runLater(() -> applyModel(provisional));
+            remote.thenAccept(latest -> {
+                LauncherModel evaluated = evaluateState(local, latest);
+                Platform.runLater(() -> {
+                    if (currentModel == provisional) {
+                        applyModel(evaluated);
+                    } else {
+                        LOG.debug("Keeping state {} over the late release check", currentModel.state());
+                    }
+                });
+            });
         });
     }
 
-    private LauncherModel evaluateState() {
-        Optional<VersionMetadata> localMeta = versionService.readMetadata();
-        boolean jarExists = java.nio.file.Files.exists(LauncherPaths.clientJarPath());
-        Optional<ReleaseInfo> latest = githubService.fetchLatestRelease();
-        currentRelease = latest;
+    private LocalState evaluateLocal() {
+        services.updateService().adoptLegacyClient();
+        activatePending();
+        Optional<VersionMetadata> localMeta = services.versionService().readMetadata();
+        boolean jarExists = Files.exists(LauncherPaths.clientJarPath());
         currentMetadata = localMeta;
+        return new LocalState(localMeta, jarExists);
+    }
+
+    private LauncherModel provisionalModel(LocalState local) {
+        if (!local.jarExists()) {
+            return LauncherModel.checking();
+        }
+        return buildModel(LauncherState.OFFLINE_READY, "Launch Woodlanders", true,
+                "Checking for updates…",
+                local.metadata().map(VersionMetadata::version).orElse("cached"), "checking…");
+    }
+
+    private LauncherModel evaluateState(LocalState local, Optional<ReleaseInfo> latest) {
+        Optional<VersionMetadata> localMeta = local.metadata();
+        boolean jarExists = local.jarExists();
+        currentRelease = latest;
 
         if (latest.isEmpty()) {
             if (jarExists) {
@@ -160,6 +294,17 @@ public class LauncherApplication extends Application {
         return buildModel(LauncherState.NEEDS_UPDATE, label, true, message, localVersion, remoteVersion);
     }
 
+    /**
+     * Removes temporary downloads left behind by a crash and partial downloads that were abandoned.
+     * Runs on the worker after the local state has been read, so neither the UI thread nor the startup
+     * check waits for the directory scan.
+     */
+    private void collectOrphans() {
+        CacheManager.collectOrphans(LauncherPaths.configDirectory(), "woodlanders-client*.tmp", ORPHAN_MIN_AGE);
+        CacheManager.collectStalePartials(LauncherPaths.configDirectory(), CacheManager.PARTIAL_MAX_AGE);
+        services.sessionSupervisor().recoverUnfinished();
+    }
+
     private void handlePrimaryAction() {
         switch (currentModel.state()) {
             case READY_TO_LAUNCH, OFFLINE_READY -> launchClient();
@@ -180,14 +325,17 @@ public class LauncherApplication extends Application {
         applyModel(buildModel(LauncherState.UPDATING, "Downloading…", false,
                 "Downloading " + release.tagName() + "…",
                 currentModel.localVersion(), release.tagName()));
+        progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        showProgressBar(true);
         executor.submit(() -> {
             try {
-                DownloadResult result = downloadService.downloadRelease(release);
-                VersionMetadata metadata = new VersionMetadata(release.tagName(), result.sha256(), Instant.now(), result.size());
-                versionService.writeMetadata(metadata);
+                VersionMetadata metadata = services.updateService().install(release,
+                        progress -> publishProgress(release, progress));
                 currentMetadata = Optional.of(metadata);
+                String rate = metadata.downloadBytesPerSecond() > 0
+                        ? " (" + formatBytes(metadata.downloadBytesPerSecond()) + "/s)" : "";
                 applyLater(buildModel(LauncherState.READY_TO_LAUNCH, "Launch Woodlanders", true,
-                        "Updated to " + release.tagName() + ".",
+                        "Updated to " + release.tagName() + rate + ".",
                         metadata.version(), release.tagName()));
             } catch (IOException e) {
                 LOG.error("Download failed", e);
@@ -204,13 +352,62 @@ public class LauncherApplication extends Application {
         });
     }
 
+    /**
+     * Hands {@code progress} to the FX thread. Only the newest snapshot is kept, and a new runLater is
+     * queued only once the previous one has run, so a busy FX thread never builds up a backlog.
+     */
+    private void publishProgress(ReleaseInfo release, DownloadProgress progress) {
+        if (pendingProgress.getAndSet(progress) == null) {
+            Platform.runLater(() -> {
+                DownloadProgress latest = pendingProgress.getAndSet(null);
+                if (latest != null && currentModel.state() == LauncherState.UPDATING) {
+                    progressBar.setProgress(latest.fraction() >= 0 ? latest.fraction()
+                            : ProgressBar.INDETERMINATE_PROGRESS);
+                    statusLabel.setText(formatProgress(release, latest));
+                }
+            });
+        }
+    }
+
+    private static String formatProgress(ReleaseInfo release, DownloadProgress progress) {
+        StringBuilder text = new StringBuilder("Downloading ").append(release.tagName()).append(": ")
+                .append(formatBytes(progress.transferredBytes()));
+        if (progress.totalBytes() > 0) {
+            text.append(" of ").append(formatBytes(progress.totalBytes()));
+        }
+        if (progress.smoothedBytesPerSecond() > 0) {
+            text.append(" at ").append(formatBytes(progress.smoothedBytesPerSecond())).append("/s");
+        }
+        progress.eta().filter(eta -> !progress.complete()).ifPresent(eta -> {
+            long seconds = Math.max(1, eta.toSeconds());
+            text.append(", ").append(seconds >= 60 ? seconds / 60 + " min " + seconds % 60 + " s" : seconds + " s")
+                    .append(" left");
+        });
+        return text.toString();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.0f KB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    private void showProgressBar(boolean visible) {
+        progressBar.setVisible(visible);
+        progressBar.setManaged(visible);
+    }
+
     private void launchClient() {
         applyModel(buildModel(LauncherState.LAUNCHING, "Launching…", false,
                 "Starting Woodlanders client…",
                 currentModel.localVersion(), currentModel.remoteVersion()));
         executor.submit(() -> {
             try {
-                gameLaunchService.launchClient();
+                activatePending();
+                GameLaunchService.LaunchedClient launched = services.gameLaunchService()
+                        .launch(currentMetadata.map(VersionMetadata::sha256).orElse(null));
+                superviseSession(launched);
                 applyLater(buildModel(LauncherState.READY_TO_LAUNCH, "Launch Woodlanders", true,
                         "Client launched. Use this window for updates.",
                         currentMetadata.map(VersionMetadata::version).orElse(currentModel.localVersion()),
@@ -224,8 +421,35 @@ public class LauncherApplication extends Application {
         });
     }
 
+    /**
+     * Follows the game until it exits and reports a crash in the window; resource use is written to
+     * the session file by the supervisor.
+     */
+    private void superviseSession(GameLaunchService.LaunchedClient launched) {
+        String version = currentMetadata.map(VersionMetadata::version).orElse(null);
+        services.sessionSupervisor().supervise(launched.process(), launched.record(), version)
+                .thenAccept(metrics -> {
+                    if (metrics.failed()) {
+                        Platform.runLater(() -> applyModel(currentModel.withMessage(
+                                "Woodlanders exited unexpectedly (code " + metrics.exitCode() + ").")));
+                    }
+                });
+    }
+
+    private void activatePending() {
+        try {
+            services.updateService().activatePending().ifPresent(metadata -> currentMetadata = Optional.of(metadata));
+        } catch (IOException e) {
+            LOG.warn("Failed to activate the staged client; keeping the current one", e);
+        }
+    }
+
     private void applyModel(LauncherModel model) {
+        if (model.state() == LauncherState.ERROR && currentModel.state() != LauncherState.ERROR) {
+            LauncherMetrics.FAILURES.increment(currentModel.state());
+        }
         this.currentModel = model;
+        showProgressBar(model.state() == LauncherState.UPDATING);
         primaryButton.setText(model.primaryActionLabel());
         primaryButton.setDisable(!model.primaryActionEnabled());
         statusLabel.setText(model.message());
@@ -245,10 +469,22 @@ public class LauncherApplication extends Application {
         return String.format("Local: %s | Remote: %s", model.localVersion(), model.remoteVersion());
     }
 
+    /**
+     * What the launcher found on disk, independent of the network.
+     */
+    private record LocalState(Optional<VersionMetadata> metadata, boolean jarExists) {
+    }
+
     private static final class LauncherThreadFactory implements ThreadFactory {
+        private final String name;
+
+        private LauncherThreadFactory(String name) {
+            this.name = name;
+        }
+
         @Override
         public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r, "woodlanders-launcher-worker");
+            Thread thread = new Thread(r, name);
             thread.setDaemon(true);
             return thread;
         }
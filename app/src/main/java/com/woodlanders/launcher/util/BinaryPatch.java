@@ -0,0 +1,148 @@
+package com.woodlanders.launcher.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Reads and writes the launcher's binary patch format, which rebuilds one client jar from another.
+ *
+ * <pre>
+ * "WLPATCH1"                       8-byte magic
+ * source SHA-256, target SHA-256   32 bytes each
+ * target size                      8-byte big-endian long
+ * ops*                             'C' offset(long) length(int)  copy bytes from the source
+ *                                  'I' length(int) bytes          insert literal bytes
+ * 'E'                              end of patch
+ * </pre>
+ *
+ * Only applying patches ships with the launcher. They are produced at release time by
+ * {@code BinaryPatchWriter} in the {@code tools} source set ({@code ./gradlew :app:releasePatch}).
+ */
+public final class BinaryPatch {
+    static final byte[] MAGIC = "WLPATCH1".getBytes(StandardCharsets.US_ASCII);
+    static final int OP_COPY = 'C';
+    static final int OP_INSERT = 'I';
+    static final int OP_END = 'E';
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private BinaryPatch() {
+    }
+
+    /**
+     * Header of a patch: which file it applies to and what it produces.
+     */
+    public record Header(String sourceSha256, String targetSha256, long targetSize) {
+    }
+
+    /**
+     * Applies {@code patch} to {@code source}, writing the result to {@code target}. The source hash is
+     * checked against the header before any output is written, and the output is hashed as it is
+     * written and rejected unless it matches the target hash the patch declares.
+     *
+     * @return the SHA-256 of the produced file
+     */
+    public static String apply(Path source, InputStream patch, Path target) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(patch, COPY_BUFFER_SIZE));
+        Header header = readHeader(in);
+        String sourceSha256 = Hashing.sha256(source);
+        if (!sourceSha256.equalsIgnoreCase(header.sourceSha256())) {
+            throw new IOException("Patch expects source " + header.sourceSha256() + " but found " + sourceSha256);
+        }
+        MessageDigest digest = Hashing.newSha256();
+        long written = 0;
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+             OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(target,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE),
+                     COPY_BUFFER_SIZE), digest)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long sourceSize = sourceChannel.size();
+            while (true) {
+                int op = in.readUnsignedByte();
+                if (op == OP_END) {
+                    break;
+                }
+                if (op == OP_COPY) {
+                    long offset = in.readLong();
+                    int length = in.readInt();
+                    if (offset < 0 || length < 0 || offset > sourceSize || length > sourceSize - offset) {
+                        throw new IOException("Patch copies outside the source file");
+                    }
+                    copyRange(sourceChannel, offset, length, out, buffer);
+                    written += length;
+                } else if (op == OP_INSERT) {
+                    int length = in.readInt();
+                    if (length < 0) {
+                        throw new IOException("Corrupt patch insert length " + length);
+                    }
+                    for (int remaining = length; remaining > 0; ) {
+                        int chunk = Math.min(remaining, buffer.length);
+                        in.readFully(buffer, 0, chunk);
+                        out.write(buffer, 0, chunk);
+                        remaining -= chunk;
+                    }
+                    written += length;
+                } else {
+                    throw new IOException("Unknown patch operation " + op);
+                }
+                if (written > header.targetSize()) {
+                    throw new IOException("Patch output exceeds the declared size " + header.targetSize());
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Patch ended unexpectedly", e);
+        }
+        if (written != header.targetSize()) {
+            throw new IOException("Patch produced " + written + " bytes, expected " + header.targetSize());
+        }
+        String targetSha256 = Hashing.toHex(digest.digest());
+        if (!targetSha256.equalsIgnoreCase(header.targetSha256())) {
+            throw new IOException("Patch produced " + targetSha256 + " but declares " + header.targetSha256());
+        }
+        return targetSha256;
+    }
+
+    public static Header readHeader(InputStream patch) throws IOException {
+        DataInputStream in = patch instanceof DataInputStream data ? data : new DataInputStream(patch);
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a Woodlanders patch");
+        }
+        byte[] hash = new byte[32];
+        in.readFully(hash);
+        String sourceSha256 = Hashing.toHex(hash);
+        in.readFully(hash);
+        String targetSha256 = Hashing.toHex(hash);
+        return new Header(sourceSha256, targetSha256, in.readLong());
+    }
+
+    private static void copyRange(FileChannel channel, long offset, int length, OutputStream out, byte[] buffer)
+            throws IOException {
+        ByteBuffer view = ByteBuffer.wrap(buffer);
+        long position = offset;
+        long end = offset + length;
+        while (position < end) {
+            view.clear().limit((int) Math.min(buffer.length, end - position));
+            int read = channel.read(view, position);
+            if (read < 0) {
+                throw new EOFException("Source ended at " + position);
+            }
+            out.write(buffer, 0, read);
+            position += read;
+        }
+    }
+}
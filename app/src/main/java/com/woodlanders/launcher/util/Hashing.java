@@ -1,46 +1,139 @@
 package com.woodlanders.launcher.util;
 
+import com.woodlanders.launcher.diagnostics.FileHashEvent;
+
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Small helper for computing hashes without dragging additional dependencies.
+ *
+ * <p>Files are read through a {@link FileChannel}. Large files are memory-mapped window by window,
+ * so the digest reads straight from the page cache; smaller files, and every file on Windows (where
+ * a mapping keeps the file from being moved or deleted until it is garbage collected), are read into
+ * a large direct buffer. A heap buffer would make the channel copy through a temporary direct buffer
+ * of the same size, which the JDK then caches for the lifetime of each calling thread. Direct buffers
+ * are pooled across threads instead, and the pool keeps at most {@code POOLED_BUFFERS} of them.
+ * Several digests can be fed from a single pass over the file.
  */
 public final class Hashing {
-    private static final int BUFFER_SIZE = 8 * 1024;
+    public static final String SHA_256 = "SHA-256";
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final long MAP_THRESHOLD = 16L * 1024 * 1024;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    private static final boolean MAPPING_ALLOWED = !System.getProperty("os.name", "")
+            .toLowerCase(Locale.ROOT).contains("win");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int POOLED_BUFFERS = 2;
+    private static final BlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(POOLED_BUFFERS);
 
     private Hashing() {
     }
 
     public static String sha256(Path file) throws IOException {
-        MessageDigest digest = getDigest();
-        byte[] buffer = new byte[BUFFER_SIZE];
-        try (InputStream in = Files.newInputStream(file)) {
-            int read;
-            while ((read = in.read(buffer)) != -1) {
-                digest.update(buffer, 0, read);
+        MessageDigest digest = newSha256();
+        update(file, digest);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Hashes {@code file} once with every given algorithm and returns the hex digests keyed by
+     * algorithm name, in the order requested.
+     */
+    public static Map<String, String> digests(Path file, String... algorithms) throws IOException {
+        MessageDigest[] digests = new MessageDigest[algorithms.length];
+        for (int i = 0; i < algorithms.length; i++) {
+            digests[i] = newDigest(algorithms[i]);
+        }
+        update(file, digests);
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < algorithms.length; i++) {
+            result.put(algorithms[i], toHex(digests[i].digest()));
+        }
+        return result;
+    }
+
+    /**
+     * Feeds the whole content of {@code file} to each of {@code digests}.
+     */
+    public static void update(Path file, MessageDigest... digests) throws IOException {
+        FileHashEvent event = new FileHashEvent();
+        event.begin();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            boolean mapped = MAPPING_ALLOWED && size >= MAP_THRESHOLD;
+            if (mapped) {
+                updateMapped(channel, size, digests);
+            } else {
+                updateBuffered(channel, digests);
+            }
+            if (event.shouldCommit()) {
+                event.path = file.toString();
+                event.bytes = size;
+                event.digests = digests.length;
+                event.mapped = mapped;
+                event.commit();
             }
         }
-        return toHex(digest.digest());
     }
 
-    private static MessageDigest getDigest() {
+    public static MessageDigest newSha256() {
+        return newDigest(SHA_256);
+    }
+
+    public static MessageDigest newDigest(String algorithm) {
         try {
-            return MessageDigest.getInstance("SHA-256");
+            return MessageDigest.getInstance(algorithm);
         } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 algorithm not available", e);
+            throw new IllegalStateException(algorithm + " algorithm not available", e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
         }
+        return new String(hex);
     }
 
-    private static String toHex(byte[] bytes) {
-        StringBuilder builder = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            builder.append(String.format("%02x", b));
+    private static void updateMapped(FileChannel channel, long size, MessageDigest[] digests) throws IOException {
+        for (long position = 0; position < size; position += MAP_WINDOW) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(MAP_WINDOW, size - position));
+            for (MessageDigest digest : digests) {
+                digest.update(window.duplicate());
+            }
+        }
+    }
+
+    private static void updateBuffered(FileChannel channel, MessageDigest[] digests) throws IOException {
+        ByteBuffer pooled = BUFFERS.poll();
+        ByteBuffer buffer = pooled != null ? pooled.clear() : ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer.duplicate());
+                }
+                buffer.clear();
+            }
+        } finally {
+            // Beyond the pool's capacity the buffer is left to the garbage collector
+            BUFFERS.offer(buffer);
         }
-        return builder.toString();
     }
 }
@@ -0,0 +1,41 @@
+package com.woodlanders.launcher.util;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe memoizing supplier: the value is created on first {@link #get()} and shared afterwards.
+ * Lets expensive objects such as HTTP clients and JSON mappers be declared as fields without paying
+ * for them before they are used.
+ */
+public final class Lazy<T> implements Supplier<T> {
+    private final Supplier<? extends T> factory;
+    private volatile T value;
+
+    private Lazy(Supplier<? extends T> factory) {
+        this.factory = factory;
+    }
+
+    public static <T> Lazy<T> of(Supplier<? extends T> factory) {
+        return new Lazy<>(Objects.requireNonNull(factory, "factory"));
+    }
+
+    @Override
+    public T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = Objects.requireNonNull(factory.get(), "factory returned null");
+                    value = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isInitialized() {
+        return value != null;
+    }
+}
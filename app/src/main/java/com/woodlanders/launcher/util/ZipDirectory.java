@@ -0,0 +1,168 @@
+package com.woodlanders.launcher.util;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.ZipException;
+
+/**
+ * Central directory of a zip (jar) file. Each entry also carries the length of its whole local
+ * record, i.e. local header, data and optional data descriptor, which is the distance to the next
+ * record or to the directory itself; entries are listed in record order. Zip64 archives are
+ * rejected, client jars never need them.
+ */
+public record ZipDirectory(long directoryOffset, long directorySize, List<Entry> entries) {
+    /**
+     * Longest possible end-of-central-directory record, including a maximal comment.
+     */
+    public static final int MAX_TRAILER_LENGTH = 22 + 0xFFFF;
+
+    private static final int TRAILER_SIGNATURE = 0x06054b50;
+    private static final int ENTRY_SIGNATURE = 0x02014b50;
+    private static final int TRAILER_LENGTH = 22;
+    private static final int ENTRY_HEADER_LENGTH = 46;
+    private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+
+    /**
+     * One central directory entry. {@code recordOffset} and {@code recordLength} delimit the bytes of
+     * the local record that holds its data; {@code dosTime} holds the DOS date in its upper and the
+     * DOS time in its lower 16 bits.
+     */
+    public record Entry(String name, int flags, int method, int dosTime, long crc, long compressedSize, long size,
+                        long recordOffset, long recordLength) {
+        /**
+         * True when both records are interchangeable byte ranges: same data, flags, timestamp and
+         * record length, so one can be copied over the other without moving anything after it. A
+         * rebuilt jar whose classes kept their content but not their timestamps does not qualify.
+         */
+        public boolean sameRecordAs(Entry other) {
+            return name.equals(other.name)
+                    && flags == other.flags
+                    && method == other.method
+                    && dosTime == other.dosTime
+                    && crc == other.crc
+                    && compressedSize == other.compressedSize
+                    && size == other.size
+                    && recordLength == other.recordLength;
+        }
+    }
+
+    /**
+     * Location of the central directory, as read from the end-of-central-directory record.
+     */
+    public record Trailer(long directoryOffset, long directorySize, int entryCount) {
+    }
+
+    /**
+     * Reads the directory of a local archive.
+     */
+    public static ZipDirectory read(Path archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int tailLength = (int) Math.min(size, MAX_TRAILER_LENGTH);
+            ByteBuffer tail = readFully(channel, size - tailLength, tailLength);
+            Trailer trailer = findTrailer(tail, size - tailLength);
+            ByteBuffer directory = readFully(channel, trailer.directoryOffset(), (int) trailer.directorySize());
+            return parse(directory, trailer);
+        }
+    }
+
+    /**
+     * Locates the end-of-central-directory record in the last bytes of an archive, which start at
+     * {@code tailOffset} within the archive.
+     */
+    public static Trailer findTrailer(ByteBuffer tail, long tailOffset) throws IOException {
+        ByteBuffer buffer = tail.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int base = buffer.position();
+        for (int at = buffer.limit() - TRAILER_LENGTH; at >= base; at--) {
+            if (buffer.getInt(at) != TRAILER_SIGNATURE
+                    || at + TRAILER_LENGTH + Short.toUnsignedInt(buffer.getShort(at + 20)) != buffer.limit()) {
+                continue;
+            }
+            int entryCount = Short.toUnsignedInt(buffer.getShort(at + 10));
+            long directorySize = Integer.toUnsignedLong(buffer.getInt(at + 12));
+            long directoryOffset = Integer.toUnsignedLong(buffer.getInt(at + 16));
+            if (entryCount == 0xFFFF || directorySize == ZIP64_MARKER || directoryOffset == ZIP64_MARKER) {
+                throw new ZipException("Zip64 archives are not supported");
+            }
+            if (directoryOffset + directorySize != tailOffset + at - base) {
+                throw new ZipException("Central directory does not end at the trailer");
+            }
+            return new Trailer(directoryOffset, directorySize, entryCount);
+        }
+        throw new ZipException("End of central directory not found");
+    }
+
+    /**
+     * Parses the central directory bytes described by {@code trailer}.
+     */
+    public static ZipDirectory parse(ByteBuffer directory, Trailer trailer) throws IOException {
+        ByteBuffer buffer = directory.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        List<Entry> entries = new ArrayList<>(trailer.entryCount());
+        try {
+            for (int i = 0; i < trailer.entryCount(); i++) {
+                int at = buffer.position();
+                if (buffer.getInt(at) != ENTRY_SIGNATURE) {
+                    throw new ZipException("Bad central directory entry at " + (trailer.directoryOffset() + at));
+                }
+                int flags = Short.toUnsignedInt(buffer.getShort(at + 8));
+                int method = Short.toUnsignedInt(buffer.getShort(at + 10));
+                int dosTime = buffer.getInt(at + 12);
+                long crc = Integer.toUnsignedLong(buffer.getInt(at + 16));
+                long compressedSize = Integer.toUnsignedLong(buffer.getInt(at + 20));
+                long size = Integer.toUnsignedLong(buffer.getInt(at + 24));
+                int nameLength = Short.toUnsignedInt(buffer.getShort(at + 28));
+                int extraLength = Short.toUnsignedInt(buffer.getShort(at + 30));
+                int commentLength = Short.toUnsignedInt(buffer.getShort(at + 32));
+                long offset = Integer.toUnsignedLong(buffer.getInt(at + 42));
+                if (compressedSize == ZIP64_MARKER || size == ZIP64_MARKER || offset == ZIP64_MARKER) {
+                    throw new ZipException("Zip64 archives are not supported");
+                }
+                byte[] name = new byte[nameLength];
+                buffer.position(at + ENTRY_HEADER_LENGTH);
+                buffer.get(name);
+                buffer.position(buffer.position() + extraLength + commentLength);
+                entries.add(new Entry(new String(name, StandardCharsets.UTF_8), flags, method, dosTime, crc,
+                        compressedSize, size, offset, -1));
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new ZipException("Truncated central directory");
+        }
+        return new ZipDirectory(trailer.directoryOffset(), trailer.directorySize(), withRecordLengths(entries,
+                trailer.directoryOffset()));
+    }
+
+    private static List<Entry> withRecordLengths(List<Entry> entries, long directoryOffset) throws ZipException {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingLong(Entry::recordOffset));
+        List<Entry> result = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            Entry entry = sorted.get(i);
+            long end = i + 1 < sorted.size() ? sorted.get(i + 1).recordOffset() : directoryOffset;
+            if (end < entry.recordOffset() + entry.compressedSize()) {
+                throw new ZipException("Entry " + entry.name() + " overlaps the next record");
+            }
+            result.add(new Entry(entry.name(), entry.flags(), entry.method(), entry.dosTime(), entry.crc(),
+                    entry.compressedSize(), entry.size(), entry.recordOffset(), end - entry.recordOffset()));
+        }
+        return List.copyOf(result);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new ZipException("Archive ended unexpectedly");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,32 @@
+package com.woodlanders.launcher.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LauncherCliTest {
+
+    @Test
+    void parsesCommandsWithTheirFlags() {
+        LauncherCli.Command update = LauncherCli.Command.parse(new String[] {"update", "--stage"});
+        assertEquals("update", update.name());
+        assertTrue(update.has("--stage"));
+
+        LauncherCli.Command launch = LauncherCli.Command.parse(new String[] {"launch"});
+        assertEquals(Set.of(), launch.flags());
+        assertFalse(launch.has("--wait"));
+    }
+
+    @Test
+    void rejectsUnknownCommandsAndOptions() {
+        assertThrows(IllegalArgumentException.class, () -> LauncherCli.Command.parse(new String[0]));
+        assertThrows(IllegalArgumentException.class, () -> LauncherCli.Command.parse(new String[] {"install"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> LauncherCli.Command.parse(new String[] {"check", "--stage"}));
+    }
+}
@@ -0,0 +1,57 @@
+package com.woodlanders.launcher.diagnostics;
+
+import com.woodlanders.launcher.model.VersionMetadata;
+import com.woodlanders.launcher.services.VersionService;
+import com.woodlanders.launcher.util.Hashing;
+import com.woodlanders.launcher.util.ObjectMapperFactory;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the launcher's flight recorder events are emitted with their fields filled in.
+ */
+class LauncherEventsTest {
+
+    @Test
+    void hashingAndVersionFilesAreRecorded() throws Exception {
+        Path dir = Files.createTempDirectory("woodlanders-jfr-test");
+        Path file = dir.resolve("client.jar");
+        Files.write(file, new byte[4096]);
+        VersionService versionService = new VersionService(ObjectMapperFactory.create(), dir.resolve("version.json"));
+        Path dump = dir.resolve("events.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(FileHashEvent.class);
+            recording.enable(VersionFileEvent.class);
+            recording.start();
+            Hashing.sha256(file);
+            versionService.writeMetadata(new VersionMetadata("v1.0.0", "ab", Instant.now(), 4096));
+            versionService.readMetadata();
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        RecordedEvent hash = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.woodlanders.launcher.FileHash"))
+                .findFirst().orElseThrow();
+        assertEquals(4096, hash.getLong("bytes"));
+        assertEquals(file.toString(), hash.getString("path"));
+        List<String> operations = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.woodlanders.launcher.VersionFile"))
+                .map(event -> event.getString("operation"))
+                .toList();
+        assertEquals(List.of("write", "read"), operations);
+        assertTrue(events.stream().allMatch(event -> event.getDuration().toNanos() >= 0));
+    }
+}
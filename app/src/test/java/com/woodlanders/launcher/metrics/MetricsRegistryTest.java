@@ -0,0 +1,64 @@
+package com.woodlanders.launcher.metrics;
+
+import com.woodlanders.launcher.model.LauncherState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTest {
+
+    @Test
+    void exportsCountersAndHistogramsInTheTextFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter bytes = registry.counter("test_bytes_total", "Bytes seen");
+        EnumCounter<LauncherState> failures = registry.counter("test_failures_total", "Failures", "state",
+                LauncherState.class);
+        Histogram latency = registry.histogram("test_latency_seconds", "Latency", 0.1, 1);
+
+        bytes.add(1024);
+        failures.increment(LauncherState.UPDATING);
+        failures.increment(LauncherState.UPDATING);
+        latency.observe(0.05);
+        latency.observe(0.1);
+        latency.observe(0.5);
+        latency.observe(3);
+
+        String text = registry.scrape();
+        assertTrue(text.contains("# HELP test_bytes_total Bytes seen\n# TYPE test_bytes_total counter\ntest_bytes_total 1024\n"), text);
+        assertTrue(text.contains("test_failures_total{state=\"updating\"} 2\n"), text);
+        assertTrue(text.contains("test_failures_total{state=\"launching\"} 0\n"), text);
+        assertTrue(text.contains("# TYPE test_latency_seconds histogram\n"
+                + "test_latency_seconds_bucket{le=\"0.1\"} 2\n"
+                + "test_latency_seconds_bucket{le=\"1\"} 3\n"
+                + "test_latency_seconds_bucket{le=\"+Inf\"} 4\n"
+                + "test_latency_seconds_sum 3.65\n"
+                + "test_latency_seconds_count 4\n"), text);
+    }
+
+    @Test
+    void rejectsDuplicateAndInvalidNames() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_total", "Test");
+
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("test_total", "Again"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("test-total", "Dash"));
+    }
+
+    @Test
+    void writesTheExpositionToAFile() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_launches_total", "Launches").increment();
+        Path file = Files.createTempDirectory("woodlanders-metrics-test").resolve("launcher.prom");
+
+        MetricsExporter.write(registry, file);
+
+        assertEquals(registry.scrape(), Files.readString(file, StandardCharsets.UTF_8));
+        assertTrue(Files.notExists(file.resolveSibling("launcher.prom.tmp")));
+    }
+}
@@ -0,0 +1,30 @@
+package com.woodlanders.launcher.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BandwidthLimiterTest {
+
+    @Test
+    void unlimitedNeverPauses() {
+        BandwidthLimiter limiter = BandwidthLimiter.of(0);
+
+        assertTrue(limiter.isUnlimited());
+        assertEquals(Duration.ZERO, limiter.reserve(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    void pausesOnceTheBurstAllowanceIsSpent() {
+        BandwidthLimiter limiter = BandwidthLimiter.of(1024 * 1024);
+
+        assertEquals(Duration.ZERO, limiter.reserve(64 * 1024), "A short burst passes straight through");
+        Duration pause = limiter.reserve(1024 * 1024);
+
+        assertTrue(pause.compareTo(Duration.ofMillis(700)) > 0, "Pause was " + pause);
+        assertTrue(pause.compareTo(Duration.ofMillis(1100)) < 0, "Pause was " + pause);
+    }
+}
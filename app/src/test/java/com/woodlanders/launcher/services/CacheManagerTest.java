@@ -0,0 +1,86 @@
+package com.woodlanders.launcher.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheManagerTest {
+
+    @Test
+    void evictsLeastRecentlyUsedFilesUntilTheQuotaFits() throws IOException {
+        Path dir = Files.createTempDirectory("woodlanders-cache-test");
+        Path oldest = artifact(dir, "a.jar", Duration.ofDays(3));
+        Path pinned = artifact(dir, "b.jar", Duration.ofDays(2));
+        Path recent = artifact(dir, "c.jar", Duration.ofDays(1));
+        Path used = artifact(dir, "d.jar", Duration.ofDays(4));
+        CacheManager manager = new CacheManager(dir, 2500);
+        manager.touch(used);
+
+        List<Path> evicted = manager.enforceQuota(pinned::equals);
+
+        assertEquals(List.of(oldest, recent), evicted, "Oldest unpinned files go first; a touch counts as use");
+        assertTrue(Files.exists(pinned));
+        assertTrue(Files.exists(used));
+        assertFalse(Files.exists(recent));
+        assertFalse(Files.exists(dir.resolve("a.jar.lock")), "The lock sidecar goes with its file");
+    }
+
+    @Test
+    void leavesTheDirectoryAloneWithinItsQuota() throws IOException {
+        Path dir = Files.createTempDirectory("woodlanders-cache-test");
+        artifact(dir, "a.jar", Duration.ofDays(3));
+        Files.write(dir.resolve("download.lock"), new byte[5000]);
+
+        assertEquals(List.of(), new CacheManager(dir, 1000).enforceQuota(path -> false));
+    }
+
+    @Test
+    void countsPartialDownloadsButOnlyDeletesAbandonedOnes() throws IOException {
+        Path dir = Files.createTempDirectory("woodlanders-cache-test");
+        Path artifact = artifact(dir, "a.jar", Duration.ofDays(1));
+        Path active = artifact(dir, "v2.part", Duration.ZERO);
+        Path abandoned = artifact(dir, "v1.part", Duration.ofDays(30));
+        Path journal = artifact(dir, "v1.part.json", Duration.ofDays(30));
+        Path orphanedJournal = artifact(dir, "v0.part.json", Duration.ofDays(30));
+
+        List<Path> evicted = new CacheManager(dir, 1500).enforceQuota(path -> false);
+
+        assertEquals(List.of(artifact), evicted, "A partial download in progress still takes up space");
+        assertTrue(Files.exists(active));
+        assertFalse(Files.exists(abandoned));
+        assertFalse(Files.exists(journal));
+        assertFalse(Files.exists(orphanedJournal));
+        assertFalse(Files.exists(dir.resolve("v1.part.lock")));
+    }
+
+    @Test
+    void collectsOnlyOrphansOlderThanTheMinimumAge() throws IOException {
+        Path dir = Files.createTempDirectory("woodlanders-cache-test");
+        Path stale = artifact(dir, "woodlanders-client123.tmp", Duration.ofDays(1));
+        Path fresh = Files.write(dir.resolve("woodlanders-client456.tmp"), new byte[1]);
+        Path unrelated = artifact(dir, "other.tmp", Duration.ofDays(1));
+
+        int deleted = CacheManager.collectOrphans(dir, "woodlanders-client*.tmp", Duration.ofHours(1));
+
+        assertEquals(1, deleted);
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(fresh), "A file still being written must survive");
+        assertTrue(Files.exists(unrelated));
+    }
+
+    private static Path artifact(Path dir, String name, Duration age) throws IOException {
+        Path file = Files.write(dir.resolve(name), new byte[1000]);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+}
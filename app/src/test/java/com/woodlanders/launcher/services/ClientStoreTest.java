@@ -0,0 +1,116 @@
+package com.woodlanders.launcher.services;
+
+import com.woodlanders.launcher.util.Hashing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Covers storing, activating and switching between client jars in {@link ClientStore}.
+ */
+class ClientStoreTest {
+    private Path configDir;
+    private Path activePath;
+    private ClientStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        configDir = Files.createTempDirectory("woodlanders-store-test");
+        activePath = configDir.resolve("woodlanders-client.jar");
+        store = new ClientStore(configDir.resolve("store"), activePath);
+    }
+
+    @Test
+    void switchesBetweenStoredVersionsWithoutCopying() throws IOException {
+        String first = put("first build");
+        String second = put("second build");
+
+        store.activate(first);
+        assertEquals("first build", Files.readString(activePath));
+        store.activate(second);
+        assertEquals("second build", Files.readString(activePath));
+        store.activate(first);
+        assertEquals("first build", Files.readString(activePath));
+
+        assertTrue(store.contains(first));
+        assertTrue(store.contains(second));
+        if (Files.isSymbolicLink(activePath)) {
+            assertEquals(first, store.activeHash().orElseThrow());
+        }
+    }
+
+    @Test
+    void discardsDuplicateContent() throws IOException {
+        String sha = put("same bytes");
+        Path duplicate = Files.writeString(configDir.resolve("dup.tmp"), "same bytes", StandardCharsets.UTF_8);
+
+        assertEquals(store.blobPath(sha), store.put(duplicate, sha));
+        assertFalse(Files.exists(duplicate));
+    }
+
+    @Test
+    void refusesToActivateUnknownContent() {
+        assertThrows(IOException.class, () -> store.activate("0".repeat(64)));
+    }
+
+    @Test
+    void adoptsALegacyClientJarOnlyWhenItsHashMatches() throws IOException {
+        Files.writeString(activePath, "legacy build", StandardCharsets.UTF_8);
+        String sha = Hashing.sha256(activePath);
+
+        assertFalse(store.adoptActive("f".repeat(64)));
+        assertTrue(store.adoptActive(sha));
+        assertTrue(store.contains(sha));
+        assertEquals("legacy build", Files.readString(activePath));
+    }
+
+    @Test
+    void evictionTakesTheClassDataArchiveAlongButKeepsTheActiveOne() throws IOException {
+        store = new ClientStore(configDir.resolve("store"), activePath, 40);
+        String old = put("old build");
+        String current = put("current build");
+        Files.writeString(store.archivePath(old, "jdk17"), "old archive bytes");
+        Files.writeString(store.archivePath(old, "jdk21"), "old archive bytes");
+        Files.writeString(store.archivePath(current, "jdk17"), "current archive bytes");
+        store.activate(current);
+
+        assertEquals(List.of(old), store.evictLeastRecentlyUsed(current));
+
+        assertFalse(Files.exists(store.blobPath(old)));
+        assertFalse(Files.exists(store.archivePath(old, "jdk17")));
+        assertFalse(Files.exists(store.archivePath(old, "jdk21")));
+        assertTrue(Files.exists(store.archivePath(current, "jdk17")));
+    }
+
+    @Test
+    void evictionKeepsTheVersionOfARunningGame() throws IOException {
+        store = new ClientStore(configDir.resolve("store"), activePath, 20);
+        String running = put("running build");
+        String old = put("older build");
+        String current = put("current build");
+        store.activate(current);
+
+        assertEquals(List.of(old), store.evictLeastRecentlyUsed(current, running));
+
+        assertTrue(store.contains(running));
+        assertTrue(store.contains(current));
+    }
+
+    private String put(String content) throws IOException {
+        Path file = Files.createTempFile(configDir, "client", ".tmp");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        String sha = Hashing.sha256(file);
+        store.put(file, sha);
+        return sha;
+    }
+}
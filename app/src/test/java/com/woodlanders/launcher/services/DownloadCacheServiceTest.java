@@ -1,13 +1,28 @@
 package com.woodlanders.launcher.services;
 
+import com.sun.net.httpserver.HttpServer;
+import com.woodlanders.launcher.util.Hashing;
 import net.jqwik.api.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -185,6 +200,98 @@ class DownloadCacheServiceTest {
             checksum, "Empty file should have known SHA-256 checksum");
     }
     
+    /**
+     * Unit test: A verified file whose metadata is unchanged is not re-hashed.
+     */
+    @Test
+    void unchangedMetadataSkipsTheRehash(@TempDir Path tempDir) throws Exception {
+        File file = tempDir.resolve("archive.tar.gz").toFile();
+        Files.writeString(file.toPath(), "original content");
+        FileTime settled = FileTime.from(Instant.now().minus(Duration.ofHours(1)));
+        Files.setLastModifiedTime(file.toPath(), settled);
+        String checksum = service.calculateSha256(file);
+        assertTrue(service.isCachedWithCorrectChecksum(file, checksum));
+        
+        // Same size and mtime: only a full re-hash could notice the edit
+        Files.writeString(file.toPath(), "tampered content");
+        Files.setLastModifiedTime(file.toPath(), settled);
+        
+        assertTrue(service.isCachedWithCorrectChecksum(file, checksum),
+            "Unchanged metadata should reuse the earlier verification");
+        assertFalse(new DownloadCacheService(true).isCachedWithCorrectChecksum(file, checksum),
+            "Paranoid mode should always re-hash");
+    }
+    
+    /**
+     * Unit test: Changing a verified file's metadata forces a re-hash.
+     */
+    @Test
+    void changedMetadataForcesARehash(@TempDir Path tempDir) throws Exception {
+        File file = tempDir.resolve("archive.tar.gz").toFile();
+        Files.writeString(file.toPath(), "original content");
+        Files.setLastModifiedTime(file.toPath(), FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+        String checksum = service.calculateSha256(file);
+        assertTrue(service.isCachedWithCorrectChecksum(file, checksum));
+        
+        Files.writeString(file.toPath(), "tampered content");
+        Files.setLastModifiedTime(file.toPath(), FileTime.from(Instant.now().minus(Duration.ofMinutes(30))));
+        
+        assertFalse(service.isCachedWithCorrectChecksum(file, checksum),
+            "A newer mtime should invalidate the earlier verification");
+    }
+    
+    /**
+     * Unit test: Concurrent requests for one destination share a single download.
+     */
+    @Test
+    void concurrentRequestsForTheSameFileDownloadOnce(@TempDir Path tempDir) throws Exception {
+        byte[] archive = "shared archive".getBytes(StandardCharsets.UTF_8);
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, archive.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(archive);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/jdk.tar.gz";
+            File destination = tempDir.resolve("jdk.tar.gz").toFile();
+            List<Future<DownloadCacheService.DownloadResult>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                DownloadCacheService worker = new DownloadCacheService(true);
+                results.add(workers.submit(() -> worker.downloadIfNeeded(url, destination, sha256(archive))));
+            }
+            
+            long downloads = 0;
+            for (Future<DownloadCacheService.DownloadResult> result : results) {
+                if (result.get() == DownloadCacheService.DownloadResult.DOWNLOADED) {
+                    downloads++;
+                }
+            }
+            
+            assertEquals(1, requests.get(), "Waiters should reuse the file instead of downloading again");
+            assertEquals(1, downloads);
+            assertArrayEquals(archive, Files.readAllBytes(destination.toPath()));
+        } finally {
+            workers.shutdownNow();
+            server.stop(0);
+        }
+    }
+    
+    private static String sha256(byte[] content) throws Exception {
+        return Hashing.toHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+    
     /**
      * Helper method to recursively delete a directory.
      */
@@ -0,0 +1,383 @@
+package com.woodlanders.launcher.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.woodlanders.launcher.config.LauncherPaths;
+import com.woodlanders.launcher.metrics.LauncherMetrics;
+import com.woodlanders.launcher.model.ClientSource;
+import com.woodlanders.launcher.model.DownloadProgress;
+import com.woodlanders.launcher.model.DownloadResult;
+import com.woodlanders.launcher.model.ReleaseInfo;
+import com.woodlanders.launcher.model.ReleasePatch;
+import com.woodlanders.launcher.util.BinaryPatchWriter;
+import com.woodlanders.launcher.util.Hashing;
+import com.woodlanders.launcher.util.ObjectMapperFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises {@link DownloadService} against an in-process HTTP server.
+ */
+class DownloadServiceTest {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    private final byte[] payload = new byte[5 * 1024 * 1024 + 123];
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private final AtomicLong bytesServed = new AtomicLong();
+    private volatile boolean honourRanges = true;
+    private volatile boolean truncateResponses;
+    private volatile String etag = "\"build-1\"";
+    private volatile byte[] patch = new byte[0];
+    private volatile byte[] jar = new byte[0];
+    private HttpServer server;
+    private String originalHome;
+    private Path tempHome;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        new Random(42).nextBytes(payload);
+        originalHome = System.getProperty("user.home");
+        tempHome = Files.createTempDirectory("woodlanders-download-test");
+        System.setProperty("user.home", tempHome.toString());
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/client.jar", this::serve);
+        server.createContext("/client.patch", this::servePatch);
+        server.createContext("/entries.jar", exchange -> serve(exchange, jar));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        System.setProperty("user.home", originalHome);
+    }
+
+    @Test
+    void segmentedDownloadReassemblesTheAsset() throws Exception {
+        DownloadResult result = newService(4).downloadRelease(release());
+
+        assertArrayEquals(payload, Files.readAllBytes(result.file()));
+        assertEquals(payload.length, result.size());
+        assertEquals(Hashing.sha256(result.file()), result.sha256());
+        assertEquals(2, rangeRequests.get(), "5 MiB splits into two 2 MiB-minimum segments");
+    }
+
+    @Test
+    void fallsBackToSingleStreamWhenRangesAreIgnored() throws Exception {
+        honourRanges = false;
+
+        DownloadResult result = newService(4).downloadRelease(release());
+
+        assertArrayEquals(payload, Files.readAllBytes(result.file()));
+        assertEquals(payload.length, result.size());
+        assertEquals(Hashing.sha256(result.file()), result.sha256());
+    }
+
+    @Test
+    void resumesOnlyTheMissingBytesAfterAnInterruptedTransfer() throws Exception {
+        truncateResponses = true;
+        assertThrows(IOException.class, () -> newService(4).downloadRelease(release()));
+        assertTrue(Files.exists(LauncherPaths.downloadJournalPath("v1.0.0")), "Journal should survive the failure");
+        assertTrue(Files.exists(LauncherPaths.partialDownloadPath("v1.0.0")), "Partial file should survive the failure");
+
+        truncateResponses = false;
+        bytesServed.set(0);
+        DownloadResult result = newService(4).downloadRelease(release());
+
+        assertArrayEquals(payload, Files.readAllBytes(result.file()));
+        assertEquals(Hashing.sha256(result.file()), result.sha256(), "Digest should cover resumed bytes too");
+        assertTrue(bytesServed.get() < payload.length, "Resume should not re-fetch completed ranges");
+        assertFalse(Files.exists(LauncherPaths.downloadJournalPath("v1.0.0")), "Journal should be removed on success");
+    }
+
+    @Test
+    void discardsADownloadThatDoesNotMatchThePublishedDigest() throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/client.jar");
+        ReleaseInfo published = new ReleaseInfo("v1.0.0", uri, payload.length, "0".repeat(64), List.of());
+
+        assertThrows(IOException.class, () -> newService(4).downloadRelease(published));
+
+        assertFalse(Files.exists(LauncherPaths.downloadJournalPath("v1.0.0")), "The journal must not offer a resume");
+        assertFalse(Files.exists(LauncherPaths.partialDownloadPath("v1.0.0")), "The partial file must be discarded");
+        assertFalse(Files.exists(LauncherPaths.clientJarPath()), "Nothing may be installed");
+
+        DownloadResult result = newService(4).downloadRelease(
+                new ReleaseInfo("v1.0.0", uri, payload.length, sha256(payload), List.of()));
+        assertArrayEquals(payload, Files.readAllBytes(result.file()));
+    }
+
+    @Test
+    void restartsFromScratchWhenTheEtagNoLongerMatches() throws Exception {
+        truncateResponses = true;
+        assertThrows(IOException.class, () -> newService(4).downloadRelease(release()));
+
+        truncateResponses = false;
+        etag = "\"build-2\"";
+        new Random(7).nextBytes(payload);
+        DownloadResult result = newService(4).downloadRelease(release());
+
+        assertArrayEquals(payload, Files.readAllBytes(result.file()));
+        assertEquals(Hashing.sha256(result.file()), result.sha256());
+    }
+
+    @Test
+    void rebuildsTheNewClientFromAPatchAgainstTheInstalledOne() throws Exception {
+        DownloadResult installed = newService(4).downloadRelease(release());
+        byte[] next = payload.clone();
+        for (int i = 1_000_000; i < 1_004_096; i++) {
+            next[i] ^= 0x5a;
+        }
+        ByteArrayOutputStream patchBytes = new ByteArrayOutputStream();
+        BinaryPatchWriter.create(payload, next, patchBytes);
+        patch = patchBytes.toByteArray();
+        System.arraycopy(next, 0, payload, 0, payload.length);
+        bytesServed.set(0);
+
+        DownloadResult result = newService(4).downloadRelease(patchedRelease(sha256(next)), installed.sha256());
+
+        assertArrayEquals(next, Files.readAllBytes(result.file()));
+        assertEquals(0, bytesServed.get(), "Only the patch should be downloaded");
+    }
+
+    @Test
+    void fallsBackToAFullDownloadWhenThePatchedJarDoesNotMatch() throws Exception {
+        DownloadResult installed = newService(4).downloadRelease(release());
+        byte[] next = payload.clone();
+        next[0] ^= 1;
+        ByteArrayOutputStream patchBytes = new ByteArrayOutputStream();
+        BinaryPatchWriter.create(payload, next, patchBytes);
+        patch = patchBytes.toByteArray();
+        byte[] published = payload.clone();
+        published[1] ^= 1;
+        System.arraycopy(published, 0, payload, 0, payload.length);
+        etag = "\"build-2\"";
+        bytesServed.set(0);
+
+        DownloadResult result = newService(4).downloadRelease(patchedRelease(sha256(published)), installed.sha256());
+
+        assertArrayEquals(published, Files.readAllBytes(result.file()));
+        assertEquals(payload.length, bytesServed.get());
+    }
+
+    @Test
+    void fetchesOnlyTheChangedEntriesWhenNoPatchIsPublished() throws Exception {
+        byte[] unchanged = new byte[2 * 1024 * 1024];
+        new Random(11).nextBytes(unchanged);
+        byte[] before = new byte[512 * 1024];
+        new Random(12).nextBytes(before);
+        byte[] after = new byte[600 * 1024];
+        new Random(13).nextBytes(after);
+        jar = jar(unchanged, before);
+        DownloadResult installed = newService(4).downloadRelease(jarRelease("v1.0.0", null));
+        byte[] next = jar(unchanged, after);
+        jar = next;
+        bytesServed.set(0);
+        long rebuilds = LauncherMetrics.CLIENT_SOURCES.value(ClientSource.ENTRY_DELTA);
+
+        DownloadResult result = newService(4).downloadRelease(jarRelease("v1.1.0", sha256(next)), installed.sha256());
+
+        assertArrayEquals(next, Files.readAllBytes(result.file()));
+        assertEquals(sha256(next), result.sha256());
+        assertEquals(rebuilds + 1, LauncherMetrics.CLIENT_SOURCES.value(ClientSource.ENTRY_DELTA));
+        assertTrue(bytesServed.get() < after.length + 128 * 1024,
+                "Only the changed entry and the directory should be fetched, got " + bytesServed.get());
+    }
+
+    @Test
+    void downloadsInFullWhenTheReleaseHasNoDigestToCheckARebuildAgainst() throws Exception {
+        byte[] unchanged = new byte[2 * 1024 * 1024];
+        new Random(11).nextBytes(unchanged);
+        jar = jar(unchanged, new byte[1024]);
+        DownloadResult installed = newService(4).downloadRelease(jarRelease("v1.0.0", null));
+        byte[] next = jar(unchanged, new byte[2048]);
+        jar = next;
+        bytesServed.set(0);
+
+        DownloadResult result = newService(4).downloadRelease(jarRelease("v1.1.0", null), installed.sha256());
+
+        assertArrayEquals(next, Files.readAllBytes(result.file()));
+        assertTrue(bytesServed.get() >= next.length, "Expected a full download, got " + bytesServed.get());
+    }
+
+    @Test
+    void stagingLeavesTheActiveClientUntouched() throws Exception {
+        DownloadResult installed = newService(4).downloadRelease(release());
+        byte[] active = payload.clone();
+        byte[] classes = new byte[64 * 1024];
+        new Random(9).nextBytes(classes);
+        jar = jar(new byte[1024], classes);
+
+        DownloadResult staged = newService(1).stageRelease(jarRelease("v1.1.0", null), installed.sha256());
+
+        assertArrayEquals(active, Files.readAllBytes(LauncherPaths.clientJarPath()));
+        assertArrayEquals(jar, Files.readAllBytes(staged.file()));
+        assertTrue(staged.file().startsWith(LauncherPaths.clientStoreDirectory()));
+    }
+
+    @Test
+    void cappedDownloadsStayWithinTheirBandwidth() throws Exception {
+        DownloadService service = new DownloadService(HttpClient.newHttpClient(), "woodlanders-test",
+                new DownloadJournalStore(ObjectMapperFactory.create()), new ClientStore(), 2,
+                BandwidthLimiter.of(8L * 1024 * 1024));
+
+        long started = System.nanoTime();
+        DownloadResult result = service.stageRelease(release(), null);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertArrayEquals(payload, Files.readAllBytes(result.file()));
+        assertTrue(elapsedMillis >= 300, "5 MiB at 8 MiB/s should take well over 300 ms, took " + elapsedMillis);
+    }
+
+    @Test
+    void stagedPatchesStayWithinTheirBandwidthToo() throws Exception {
+        DownloadResult installed = newService(4).downloadRelease(release());
+        byte[] next = new byte[payload.length];
+        new Random(7).nextBytes(next);
+        ByteArrayOutputStream patchBytes = new ByteArrayOutputStream();
+        BinaryPatchWriter.create(payload, next, patchBytes);
+        patch = patchBytes.toByteArray();
+        bytesServed.set(0);
+        DownloadService service = new DownloadService(HttpClient.newHttpClient(), "woodlanders-test",
+                new DownloadJournalStore(ObjectMapperFactory.create()), new ClientStore(), 2,
+                BandwidthLimiter.of(8L * 1024 * 1024));
+
+        long started = System.nanoTime();
+        DownloadResult result = service.stageRelease(patchedRelease(sha256(next)), installed.sha256());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertArrayEquals(next, Files.readAllBytes(result.file()));
+        assertEquals(0, bytesServed.get(), "Only the patch should be downloaded");
+        assertTrue(elapsedMillis >= 300, "A 5 MiB patch at 8 MiB/s should take well over 300 ms, took " + elapsedMillis);
+    }
+
+    @Test
+    void reportsProgressAtACoalescedRate() throws Exception {
+        DownloadService service = new DownloadService(HttpClient.newHttpClient(), "woodlanders-test",
+                new DownloadJournalStore(ObjectMapperFactory.create()), new ClientStore(), 2,
+                BandwidthLimiter.of(8L * 1024 * 1024));
+        List<DownloadProgress> updates = new CopyOnWriteArrayList<>();
+
+        long started = System.nanoTime();
+        DownloadResult result = service.downloadRelease(release(), null, updates::add);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        DownloadProgress last = updates.get(updates.size() - 1);
+        assertTrue(last.complete());
+        assertEquals(payload.length, last.transferredBytes());
+        assertEquals(1.0, last.fraction());
+        assertTrue(updates.size() > 2, "A capped 5 MiB transfer should report along the way");
+        assertTrue(updates.size() <= elapsedMillis / 50 + 2,
+                updates.size() + " updates in " + elapsedMillis + " ms exceeds 20 per second");
+        assertTrue(result.bytesPerSecond() > 0 && result.bytesPerSecond() < 16L * 1024 * 1024,
+                "Average rate should reflect the cap, was " + result.bytesPerSecond());
+    }
+
+    private DownloadService newService(int segments) {
+        return new DownloadService(HttpClient.newHttpClient(), "woodlanders-test",
+                new DownloadJournalStore(ObjectMapperFactory.create()), segments);
+    }
+
+    private ReleaseInfo release() {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/client.jar");
+        return new ReleaseInfo("v1.0.0", uri, payload.length);
+    }
+
+    private ReleaseInfo patchedRelease(String sha256) throws IOException {
+        URI base = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+        String installedSha = Hashing.sha256(LauncherPaths.clientJarPath());
+        return new ReleaseInfo("v1.1.0", base.resolve("/client.jar"), payload.length, sha256,
+                List.of(new ReleasePatch(installedSha.substring(0, 12), base.resolve("/client.patch"), patch.length)));
+    }
+
+    private ReleaseInfo jarRelease(String tag, String sha256) {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/entries.jar");
+        return new ReleaseInfo(tag, uri, jar.length, sha256, List.of());
+    }
+
+    private static byte[] jar(byte[] assets, byte[] classes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            String[] names = {"META-INF/MANIFEST.MF", "assets/world.bin", "com/woodlanders/Game.class"};
+            byte[][] contents = {"Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8), assets, classes};
+            for (int i = 0; i < names.length; i++) {
+                ZipEntry entry = new ZipEntry(names[i]);
+                entry.setTime(0);
+                zip.putNextEntry(entry);
+                zip.write(contents[i]);
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        return Hashing.toHex(Hashing.newSha256().digest(bytes));
+    }
+
+    private void servePatch(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(200, patch.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(patch);
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        serve(exchange, payload);
+    }
+
+    private void serve(HttpExchange exchange, byte[] asset) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        Matcher matcher = range != null ? RANGE.matcher(range) : null;
+        int start = 0;
+        int end = asset.length - 1;
+        int status = 200;
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        boolean validatorMatches = ifRange == null || ifRange.equals(etag);
+        exchange.getResponseHeaders().add("ETag", etag);
+        if (honourRanges && validatorMatches && matcher != null && matcher.matches()) {
+            rangeRequests.incrementAndGet();
+            start = Integer.parseInt(matcher.group(1));
+            end = Math.min(end, Integer.parseInt(matcher.group(2)));
+            status = 206;
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + asset.length);
+        }
+        int length = end - start + 1;
+        int sent = truncateResponses ? length / 2 : length;
+        // A chunked response that simply ends early looks like a dropped transfer to the client
+        exchange.sendResponseHeaders(status, truncateResponses ? 0 : length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(asset, start, sent);
+            out.flush();
+            bytesServed.addAndGet(sent);
+        } catch (IOException e) {
+            // client went away, e.g. a cancelled segment
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,78 @@
+package com.woodlanders.launcher.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameLaunchServiceTest {
+
+    @Test
+    void promotesOnlyTrainingArchivesWhoseHeaderWasWritten() throws IOException {
+        Path directory = Files.createTempDirectory("woodlanders-cds-test");
+        Path archive = directory.resolve("client-runtime.jsa");
+        Path training = directory.resolve("client-runtime.jsa.tmp");
+
+        // The JVM fills in the header last; a dump cut short leaves it zeroed
+        Files.write(training, new byte[64]);
+        assertFalse(GameLaunchService.promoteArchive(training, archive));
+        assertFalse(Files.exists(archive));
+
+        byte[] complete = new byte[64];
+        complete[0] = (byte) 0xa8;
+        complete[1] = (byte) 0xab;
+        complete[2] = (byte) 0x0b;
+        complete[3] = (byte) 0xf0;
+        Files.write(training, complete);
+        assertTrue(GameLaunchService.promoteArchive(training, archive));
+        assertTrue(Files.exists(archive));
+        assertFalse(Files.exists(training));
+    }
+
+    @Test
+    void keysArchivesByTheRuntimeThatRunsTheClient() throws IOException {
+        Path runtimes = Files.createTempDirectory("woodlanders-runtime-test");
+        Path first = fakeRuntime(runtimes.resolve("jdk-17"), "17.0.9+9");
+        Path second = fakeRuntime(runtimes.resolve("jdk-21"), "21.0.2+13");
+
+        String key = GameLaunchService.runtimeKey(first.toString());
+        assertEquals(key, GameLaunchService.runtimeKey(first.toString()));
+        assertNotEquals(key, GameLaunchService.runtimeKey(second.toString()));
+        assertTrue(key.matches("[0-9a-f]{12}"), key);
+    }
+
+    @Test
+    void readsTheFeatureReleaseOfOldAndNewRuntimes() throws IOException {
+        Path runtimes = Files.createTempDirectory("woodlanders-runtime-test");
+
+        assertEquals(8, GameLaunchService.probeFeatureVersion(
+                fakeRuntime(runtimes.resolve("jdk-8"), "1.8.0_392-b08").toString()));
+        assertEquals(17, GameLaunchService.probeFeatureVersion(
+                fakeRuntime(runtimes.resolve("jdk-17"), "17.0.9+9").toString()));
+        assertEquals(11, GameLaunchService.featureVersion("11"));
+        assertEquals(-1, GameLaunchService.featureVersion("unknown"));
+    }
+
+    @Test
+    void archiveOptionsLeaveOtherOptionsValidated() {
+        Path archive = Path.of("client-runtime.jsa");
+
+        assertEquals(List.of("-XX:SharedArchiveFile=" + archive), GameLaunchService.archiveOptions(archive, null));
+        assertFalse(GameLaunchService.archiveOptions(archive, Path.of("client-runtime.jsa.tmp")).stream()
+                .anyMatch(option -> option.contains("IgnoreUnrecognizedVMOptions")));
+    }
+
+    private static Path fakeRuntime(Path home, String version) throws IOException {
+        Files.createDirectories(home.resolve("bin"));
+        Files.writeString(home.resolve("release"), "JAVA_VERSION=\"" + version.split("\\+")[0] + "\"\n"
+                + "JAVA_RUNTIME_VERSION=\"" + version + "\"\n");
+        return Files.writeString(home.resolve("bin").resolve("java"), "");
+    }
+}
@@ -0,0 +1,89 @@
+package com.woodlanders.launcher.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woodlanders.launcher.model.LaunchRecord;
+import com.woodlanders.launcher.model.SessionMetrics;
+import com.woodlanders.launcher.util.ObjectMapperFactory;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameSessionSupervisorTest {
+    private final ObjectMapper mapper = ObjectMapperFactory.create();
+
+    @Test
+    void readsMemoryAndThreadsFromProcStatus() {
+        List<String> status = List.of("Name:\tjava", "VmPeak:\t 9000 kB", "VmRSS:\t  123456 kB", "Threads:\t42");
+
+        assertArrayEquals(new long[] {123456, 42}, GameSessionSupervisor.parseStatus(status));
+        assertArrayEquals(new long[] {-1, -1}, GameSessionSupervisor.parseStatus(List.of("Name:\tjava")));
+    }
+
+    @Test
+    void writesASessionFileWithTheExitCode() throws Exception {
+        Path sessions = Files.createTempDirectory("woodlanders-sessions-test");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-version").redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        LaunchRecord launch = new LaunchRecord(Instant.now(), "ab12", "balanced", process.pid(), List.of(java));
+
+        try (GameSessionSupervisor supervisor = new GameSessionSupervisor(mapper, sessions, Duration.ofMillis(10))) {
+            SessionMetrics metrics = supervisor.supervise(process, launch, "v1.2.3").get(30, TimeUnit.SECONDS);
+
+            assertEquals(Integer.valueOf(0), metrics.exitCode());
+            assertEquals(SessionMetrics.Status.EXITED, metrics.status());
+            assertEquals("balanced", metrics.profile());
+            assertEquals(process.pid(), metrics.pid());
+        }
+        try (Stream<Path> files = Files.list(sessions)) {
+            List<Path> written = files.toList();
+            assertEquals(1, written.size());
+            SessionMetrics stored = mapper.readValue(written.get(0).toFile(), SessionMetrics.class);
+            assertEquals("v1.2.3", stored.version());
+            assertEquals("ab12", stored.clientSha256());
+        }
+    }
+
+    @Test
+    void marksSessionsWhoseGameExitedUnobservedAsLost() throws Exception {
+        Path sessions = Files.createTempDirectory("woodlanders-sessions-test");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-version").redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        process.waitFor(30, TimeUnit.SECONDS);
+        Instant started = process.info().startInstant().orElse(Instant.now());
+        Path file = sessions.resolve("20260101-000000-" + process.pid() + ".json");
+        mapper.writeValue(file.toFile(), new SessionMetrics(SessionMetrics.Status.RUNNING, "v1.2.3", "ab12",
+                "balanced", process.pid(), started, null, null, 0, 0, -1, -1, -1, List.of()));
+
+        try (GameSessionSupervisor supervisor = new GameSessionSupervisor(mapper, sessions, Duration.ofMillis(10))) {
+            supervisor.recoverUnfinished();
+        }
+
+        SessionMetrics stored = mapper.readValue(file.toFile(), SessionMetrics.class);
+        assertEquals(SessionMetrics.Status.LOST, stored.status());
+        assertEquals("v1.2.3", stored.version());
+        assertNull(stored.exitCode());
+    }
+
+    @Test
+    void recognisesAProcessOnlyByItsRecordedStart() {
+        ProcessHandle self = ProcessHandle.current();
+        Instant started = self.info().startInstant().orElseThrow();
+
+        assertTrue(GameSessionSupervisor.isSameProcess(self, started.plusSeconds(1)));
+        assertFalse(GameSessionSupervisor.isSameProcess(self, started.minus(Duration.ofHours(1))));
+    }
+}
@@ -0,0 +1,118 @@
+package com.woodlanders.launcher.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.woodlanders.launcher.model.ReleaseInfo;
+import com.woodlanders.launcher.util.ObjectMapperFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises {@link GithubReleaseService} against an in-process stand-in for the GitHub API.
+ */
+class GithubReleaseServiceTest {
+    private static final String ETAG = "\"release-etag\"";
+    private static final String RELEASE_JSON = """
+            {
+              "tag_name": "v2.0.0",
+              "name": "Woodlanders 2.0",
+              "author": {"login": "gcclinux", "id": 1},
+              "assets": [
+                {"name": "notes.txt", "size": 10, "browser_download_url": "https://example.com/notes.txt"},
+                {"name": "woodlanders-client.jar", "size": 4096,
+                 "browser_download_url": "https://example.com/woodlanders-client.jar"}
+              ]
+            }
+            """;
+
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private HttpServer server;
+    private Path cachePath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cachePath = Files.createTempDirectory("woodlanders-release-cache").resolve("release-cache.json");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/releases/latest", this::serve);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void parsesTheClientJarAsset() {
+        Optional<ReleaseInfo> release = newService(Duration.ZERO).fetchLatestRelease();
+
+        assertTrue(release.isPresent());
+        assertEquals("v2.0.0", release.get().tagName());
+        assertEquals(URI.create("https://example.com/woodlanders-client.jar"), release.get().downloadUrl());
+        assertEquals(4096, release.get().assetSize());
+    }
+
+    @Test
+    void revalidatesWithEtagOnceTheTtlHasExpired() throws IOException {
+        ReleaseInfo first = newService(Duration.ZERO).fetchLatestRelease().orElseThrow();
+        ReleaseInfo second = newService(Duration.ZERO).fetchLatestRelease().orElseThrow();
+
+        assertEquals(first, second);
+        assertEquals(1, fullResponses.get());
+        assertEquals(1, notModifiedResponses.get());
+        try (Stream<Path> files = Files.list(cachePath.getParent())) {
+            assertEquals(List.of(cachePath), files.toList(), "The cache is replaced without leftovers");
+        }
+    }
+
+    @Test
+    void skipsTheNetworkWhileTheCacheIsFresh() {
+        newService(Duration.ofHours(1)).fetchLatestRelease().orElseThrow();
+        ReleaseInfo cached = newService(Duration.ofHours(1)).fetchLatestRelease().orElseThrow();
+
+        assertEquals("v2.0.0", cached.tagName());
+        assertEquals(1, fullResponses.get());
+        assertEquals(0, notModifiedResponses.get());
+    }
+
+    private GithubReleaseService newService(Duration ttl) {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/releases/latest");
+        return new GithubReleaseService(HttpClient.newHttpClient(), ObjectMapperFactory.create(),
+                "woodlanders-test", uri, cachePath, ttl);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModifiedResponses.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        fullResponses.incrementAndGet();
+        byte[] body = RELEASE_JSON.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
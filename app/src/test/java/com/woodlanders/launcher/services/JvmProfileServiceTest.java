@@ -0,0 +1,105 @@
+package com.woodlanders.launcher.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woodlanders.launcher.model.JvmProfile;
+import com.woodlanders.launcher.model.JvmProfile.GarbageCollector;
+import com.woodlanders.launcher.model.JvmProfileSet;
+import com.woodlanders.launcher.model.LaunchRecord;
+import com.woodlanders.launcher.util.ObjectMapperFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JvmProfileServiceTest {
+    private static final long GB = 1024L * 1024 * 1024;
+
+    private final ObjectMapper mapper = ObjectMapperFactory.create();
+
+    @Test
+    void sizesDefaultProfilesFromTheMachine() {
+        JvmProfileSet small = JvmProfileService.defaultProfiles(2 * GB, 2);
+        assertEquals(JvmProfileService.LOW_MEMORY, small.selected());
+        assertEquals(GarbageCollector.SERIAL, small.find(JvmProfileService.LOW_MEMORY).orElseThrow().garbageCollector());
+        assertTrue(small.profiles().stream().allMatch(profile -> profile.maxHeapMegabytes() <= 1024),
+                "No profile may claim more than half of the memory");
+
+        JvmProfileSet large = JvmProfileService.defaultProfiles(32 * GB, 16);
+        assertEquals(JvmProfileService.PERFORMANCE, large.selected());
+        JvmProfile performance = large.find(JvmProfileService.PERFORMANCE).orElseThrow();
+        assertEquals(8192, performance.maxHeapMegabytes());
+        assertEquals(performance.maxHeapMegabytes(), performance.minHeapMegabytes());
+
+        assertEquals(JvmProfileService.BALANCED, JvmProfileService.defaultProfiles(8 * GB, 4).selected());
+    }
+
+    @Test
+    void lowMemoryDefaultsNeverCapTheHeapBelowTheJvmDefault() {
+        for (long megabytes = 1024; megabytes < 4096; megabytes += 256) {
+            JvmProfileSet profiles = JvmProfileService.defaultProfiles(megabytes * 1024 * 1024, 2);
+            assertEquals(JvmProfileService.LOW_MEMORY, profiles.selected());
+            long maxHeap = profiles.find(JvmProfileService.LOW_MEMORY).orElseThrow().maxHeapMegabytes();
+            assertTrue(maxHeap >= megabytes / 4 && maxHeap <= megabytes / 2, maxHeap + " MB heap on " + megabytes + " MB");
+        }
+    }
+
+    @Test
+    void findsTheSelectedProfilePastOnesWithoutAName() throws IOException {
+        Path dir = Files.createTempDirectory("woodlanders-profiles-test");
+        Files.writeString(dir.resolve("jvm-profiles.json"), """
+                {"selected": "mine", "profiles": [{"max_heap_mb": 512}, {"name": "mine", "max_heap_mb": 768}]}
+                """);
+        JvmProfileService service = new JvmProfileService(mapper,
+                dir.resolve("jvm-profiles.json"), dir.resolve("launch-history.jsonl"));
+
+        assertEquals(768, service.selectedProfile().maxHeapMegabytes());
+    }
+
+    @Test
+    void translatesAProfileIntoJvmOptions() {
+        JvmProfile profile = new JvmProfile("custom", "/opt/jdk/bin/java", 1024, 2048, GarbageCollector.ZGC,
+                true, false, List.of("-Dwoodlanders.debug=true"));
+
+        assertEquals(List.of("-Xms1024m", "-Xmx2048m", "-XX:+UseZGC", "-XX:+AlwaysPreTouch",
+                "-Dwoodlanders.debug=true"), JvmProfileService.jvmOptions(profile));
+    }
+
+    @Test
+    void createsTheProfilesFileOnceAndHonoursTheSavedSelection() throws IOException {
+        Path dir = Files.createTempDirectory("woodlanders-profiles-test");
+        JvmProfileService service = new JvmProfileService(mapper, dir.resolve("jvm-profiles.json"),
+                dir.resolve("launch-history.jsonl"));
+
+        service.selectedProfile();
+        assertTrue(Files.exists(dir.resolve("jvm-profiles.json")));
+
+        JvmProfile tuned = new JvmProfile("tuned", "/opt/jdk/bin/java", 0, 3072, GarbageCollector.SHENANDOAH,
+                false, false, List.of());
+        mapper.writeValue(dir.resolve("jvm-profiles.json").toFile(), new JvmProfileSet("tuned", List.of(tuned)));
+
+        assertEquals(tuned, service.selectedProfile());
+        assertEquals("/opt/jdk/bin/java", service.javaExecutable(tuned));
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentLaunches() throws IOException {
+        Path dir = Files.createTempDirectory("woodlanders-history-test");
+        Path history = dir.resolve("launch-history.jsonl");
+        JvmProfileService service = new JvmProfileService(mapper, dir.resolve("jvm-profiles.json"), history);
+
+        for (int i = 0; i < 105; i++) {
+            service.recordLaunch(new LaunchRecord(Instant.EPOCH, "ab", "balanced", i, List.of("java", "-jar")));
+        }
+
+        List<String> lines = Files.readAllLines(history, StandardCharsets.UTF_8);
+        assertEquals(100, lines.size());
+        assertEquals(104, mapper.readValue(lines.get(99), LaunchRecord.class).pid());
+    }
+}
@@ -0,0 +1,122 @@
+package com.woodlanders.launcher.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.woodlanders.launcher.model.ReleaseInfo;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Covers the streaming release parser, including that it stops reading once the answer is known.
+ */
+class ReleaseJsonParserTest {
+    private final ReleaseJsonParser parser = new ReleaseJsonParser(new JsonFactory());
+
+    @Test
+    void stopsReadingOnceTheClientJarIsFound() throws IOException {
+        String json = """
+                {"tag_name": "v3.1.0",
+                 "assets": [
+                   {"name": "woodlanders-client.jar", "size": 42, "browser_download_url": "https://example.com/c.jar"}
+                 ],
+                 "body": "%s"
+                }
+                """.formatted("x".repeat(256 * 1024));
+        CountingInputStream in = new CountingInputStream(json.getBytes(StandardCharsets.UTF_8));
+
+        Optional<ReleaseInfo> release = parser.parseRelease(in);
+
+        assertTrue(release.isPresent());
+        assertEquals(new ReleaseInfo("v3.1.0", URI.create("https://example.com/c.jar"), 42), release.get());
+        assertTrue(in.consumed < json.length() / 2, "Release notes after the assets should not be read");
+    }
+
+    @Test
+    void fallsBackToAnyJarAsset() throws IOException {
+        String json = """
+                {"assets": [
+                   {"name": "readme.md", "size": 1, "browser_download_url": "https://example.com/readme.md"},
+                   {"name": "other.jar", "size": 7, "browser_download_url": "https://example.com/other.jar"}
+                 ],
+                 "tag_name": "v0.9.0"}
+                """;
+
+        ReleaseInfo release = parser.parseRelease(stream(json)).orElseThrow();
+
+        assertEquals("v0.9.0", release.tagName());
+        assertEquals(URI.create("https://example.com/other.jar"), release.downloadUrl());
+    }
+
+    @Test
+    void collectsTheAssetDigestAndPatchAssets() throws IOException {
+        String json = """
+                {"tag_name": "v4.0.0",
+                 "assets": [
+                   {"name": "woodlanders-client.jar", "size": 9, "digest": "sha256:abc123",
+                    "browser_download_url": "https://example.com/c.jar"},
+                   {"name": "woodlanders-client-from-0123456789ab.patch", "size": 3,
+                    "browser_download_url": "https://example.com/p.patch"}
+                 ]}
+                """;
+
+        ReleaseInfo release = parser.parseRelease(stream(json)).orElseThrow();
+
+        assertEquals("abc123", release.sha256());
+        assertEquals(1, release.patches().size());
+        assertTrue(release.patchFrom("0123456789abcdef").isPresent());
+        assertFalse(release.patchFrom("ffff").isPresent());
+    }
+
+    @Test
+    void rejectsReleasesWithoutAssets() throws IOException {
+        assertFalse(parser.parseRelease(stream("{\"tag_name\": \"v1.0.0\"}")).isPresent());
+    }
+
+    @Test
+    void parsesEveryReleaseInAListing() throws IOException {
+        String json = """
+                [
+                  {"tag_name": "v2", "assets": [{"name": "woodlanders-client.jar", "size": 2,
+                    "browser_download_url": "https://example.com/2.jar"}], "draft": false},
+                  {"tag_name": "v1", "assets": []},
+                  {"tag_name": "v0", "assets": [{"name": "woodlanders-client.jar", "size": 1,
+                    "browser_download_url": "https://example.com/0.jar"}]}
+                ]
+                """;
+
+        List<ReleaseInfo> releases = parser.parseReleaseList(stream(json));
+
+        assertEquals(List.of("v2", "v0"), releases.stream().map(ReleaseInfo::tagName).toList());
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class CountingInputStream extends ByteArrayInputStream {
+        private int consumed;
+
+        CountingInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                consumed += read;
+            }
+            return read;
+        }
+    }
+}
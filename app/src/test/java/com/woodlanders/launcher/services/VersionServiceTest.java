@@ -9,9 +9,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class VersionServiceTest {
@@ -23,7 +25,8 @@ class VersionServiceTest {
         Path metadataPath = tempDir.resolve("version.json");
         VersionService service = new VersionService(mapper, metadataPath);
 
-        VersionMetadata metadata = new VersionMetadata("v1.2.3", "deadbeef", Instant.parse("2025-11-23T00:00:00Z"), 42L);
+        VersionMetadata metadata = new VersionMetadata("v1.2.3", "deadbeef", Instant.parse("2025-11-23T00:00:00Z"), 42L,
+                4096L);
         service.writeMetadata(metadata);
 
         Optional<VersionMetadata> loaded = service.readMetadata();
@@ -31,5 +34,41 @@ class VersionServiceTest {
         assertEquals(metadata.version(), loaded.get().version());
         assertEquals(metadata.sha256(), loaded.get().sha256());
         assertEquals(metadata.assetSize(), loaded.get().assetSize());
+        assertEquals(metadata.downloadBytesPerSecond(), loaded.get().downloadBytesPerSecond());
+    }
+
+    @Test
+    void indexesInstalledVersionsByTag() throws IOException {
+        Path tempDir = Files.createTempDirectory("woodlanders-test-index");
+        VersionService service = new VersionService(mapper, tempDir.resolve("version.json"));
+        VersionMetadata older = new VersionMetadata("v1.0.0", "aa", Instant.parse("2025-11-01T00:00:00Z"), 1L);
+        VersionMetadata newer = new VersionMetadata("v1.1.0", "bb", Instant.parse("2025-11-02T00:00:00Z"), 2L);
+
+        service.recordInstalled(older);
+        service.recordInstalled(newer);
+        service.recordInstalled(older);
+
+        assertEquals(List.of("v1.0.0", "v1.1.0"),
+                service.installedVersions().stream().map(VersionMetadata::version).toList());
+        assertEquals("bb", service.findInstalled("v1.1.0").orElseThrow().sha256());
+
+        service.removeInstalled("v1.1.0");
+        assertFalse(service.findInstalled("v1.1.0").isPresent());
+        assertTrue(Files.exists(tempDir.resolve("versions.json")));
+    }
+
+    @Test
+    void recordsAndClearsThePendingVersion() throws IOException {
+        Path tempDir = Files.createTempDirectory("woodlanders-test-pending");
+        VersionService service = new VersionService(mapper, tempDir.resolve("version.json"));
+        VersionMetadata staged = new VersionMetadata("v1.2.0", "cc", Instant.parse("2025-11-03T00:00:00Z"), 3L);
+        assertFalse(service.readPending().isPresent());
+
+        service.writePending(staged);
+        assertEquals("cc", service.readPending().orElseThrow().sha256());
+        assertFalse(service.readMetadata().isPresent(), "Staging must not change the active version");
+
+        service.clearPending();
+        assertFalse(service.readPending().isPresent());
     }
 }
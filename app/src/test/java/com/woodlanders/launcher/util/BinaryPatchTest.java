@@ -0,0 +1,79 @@
+package com.woodlanders.launcher.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryPatchTest {
+
+    @Test
+    void rebuildsTheTargetFromMovedAndEditedBlocks() throws IOException {
+        byte[] source = new byte[256 * 1024];
+        new Random(1).nextBytes(source);
+        byte[] target = new byte[source.length + 5000];
+        byte[] inserted = new byte[5000];
+        new Random(2).nextBytes(inserted);
+        System.arraycopy(source, 100_000, target, 0, 50_000);
+        System.arraycopy(inserted, 0, target, 50_000, inserted.length);
+        System.arraycopy(source, 0, target, 55_000, 100_000);
+        System.arraycopy(source, 150_000, target, 155_000, source.length - 150_000);
+
+        ByteArrayOutputStream patch = new ByteArrayOutputStream();
+        BinaryPatchWriter.create(source, target, patch);
+        Path dir = Files.createTempDirectory("woodlanders-patch-test");
+        Path sourceFile = Files.write(dir.resolve("old.jar"), source);
+        Path targetFile = dir.resolve("new.jar");
+
+        String sha256 = BinaryPatch.apply(sourceFile, new ByteArrayInputStream(patch.toByteArray()), targetFile);
+
+        assertArrayEquals(target, Files.readAllBytes(targetFile));
+        assertEquals(Hashing.sha256(targetFile), sha256);
+        assertTrue(patch.size() < 2 * inserted.length, "Patch should carry little beyond the inserted bytes");
+    }
+
+    @Test
+    void refusesToPatchTheWrongSource() throws IOException {
+        byte[] source = new byte[8192];
+        new Random(3).nextBytes(source);
+        ByteArrayOutputStream patch = new ByteArrayOutputStream();
+        BinaryPatchWriter.create(source, new byte[10], patch);
+        Path dir = Files.createTempDirectory("woodlanders-patch-test");
+        Path other = Files.write(dir.resolve("other.jar"), new byte[8192]);
+
+        assertThrows(IOException.class, () ->
+                BinaryPatch.apply(other, new ByteArrayInputStream(patch.toByteArray()), dir.resolve("out.jar")));
+    }
+
+    @Test
+    void rejectsCopiesWhoseEndOverflowsPastTheSource() throws IOException {
+        byte[] source = new byte[4096];
+        Path dir = Files.createTempDirectory("woodlanders-patch-test");
+        Path sourceFile = Files.write(dir.resolve("old.jar"), source);
+        ByteArrayOutputStream patch = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(patch);
+        out.write("WLPATCH1".getBytes(StandardCharsets.US_ASCII));
+        out.write(Hashing.newSha256().digest(source));
+        out.write(new byte[32]);
+        out.writeLong(16);
+        out.writeByte('C');
+        out.writeLong(Long.MAX_VALUE - 8);
+        out.writeInt(16);
+        out.writeByte('E');
+
+        IOException e = assertThrows(IOException.class, () ->
+                BinaryPatch.apply(sourceFile, new ByteArrayInputStream(patch.toByteArray()), dir.resolve("new.jar")));
+        assertEquals("Patch copies outside the source file", e.getMessage());
+    }
+}
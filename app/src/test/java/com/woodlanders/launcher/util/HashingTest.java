@@ -0,0 +1,54 @@
+package com.woodlanders.launcher.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HashingTest {
+
+    @Test
+    void encodesHexInLowerCase() {
+        assertEquals("00ff10ab", Hashing.toHex(new byte[]{0, (byte) 0xff, 0x10, (byte) 0xab}));
+    }
+
+    @Test
+    void hashesSmallAndMappedFilesLikeMessageDigest() throws IOException {
+        Path dir = Files.createTempDirectory("woodlanders-hashing-test");
+        for (int size : new int[]{0, 1000, 20 * 1024 * 1024 + 17}) {
+            byte[] content = new byte[size];
+            new Random(size).nextBytes(content);
+            Path file = Files.write(dir.resolve("file-" + size + ".bin"), content);
+
+            assertEquals(reference("SHA-256", content), Hashing.sha256(file), "size " + size);
+        }
+    }
+
+    @Test
+    void computesSeveralDigestsInOnePass() throws IOException {
+        byte[] content = new byte[300_000];
+        new Random(5).nextBytes(content);
+        Path file = Files.write(Files.createTempFile("woodlanders-hashing-test", ".bin"), content);
+
+        Map<String, String> digests = Hashing.digests(file, "SHA-256", "SHA-512", "MD5");
+
+        assertEquals(reference("SHA-256", content), digests.get("SHA-256"));
+        assertEquals(reference("SHA-512", content), digests.get("SHA-512"));
+        assertEquals(reference("MD5", content), digests.get("MD5"));
+    }
+
+    private static String reference(String algorithm, byte[] content) {
+        MessageDigest digest = Hashing.newDigest(algorithm);
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(content)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.woodlanders.launcher.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipDirectoryTest {
+
+    @Test
+    void readsEntriesAndTheirRecordBoundaries() throws IOException {
+        byte[] first = "first entry".getBytes(StandardCharsets.UTF_8);
+        byte[] second = new byte[4096];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.setComment("built by tests");
+            zip.putNextEntry(new ZipEntry("a.txt"));
+            zip.write(first);
+            zip.putNextEntry(new ZipEntry("b.bin"));
+            zip.write(second);
+        }
+        Path archive = Files.write(Files.createTempFile("woodlanders-zip-test", ".jar"), bytes.toByteArray());
+
+        ZipDirectory directory = ZipDirectory.read(archive);
+
+        assertEquals(2, directory.entries().size());
+        ZipDirectory.Entry a = directory.entries().get(0);
+        ZipDirectory.Entry b = directory.entries().get(1);
+        assertEquals("a.txt", a.name());
+        assertEquals(first.length, a.size());
+        assertEquals(crc(first), a.crc());
+        assertEquals(0, a.recordOffset());
+        assertEquals(b.recordOffset(), a.recordLength());
+        assertEquals(directory.directoryOffset(), b.recordOffset() + b.recordLength());
+        assertEquals(bytes.size(), directory.directoryOffset() + directory.directorySize() + 22 + "built by tests".length());
+    }
+
+    @Test
+    void entriesWithNewTimestampsAreNotInterchangeable() throws IOException {
+        byte[] content = "unchanged class".getBytes(StandardCharsets.UTF_8);
+        ZipDirectory.Entry built = onlyEntry(content, 0);
+        ZipDirectory.Entry same = onlyEntry(content, 0);
+        ZipDirectory.Entry rebuilt = onlyEntry(content, 1_700_000_000_000L);
+
+        assertTrue(built.sameRecordAs(same));
+        assertFalse(built.sameRecordAs(rebuilt), "Equal data with a new DOS time is not byte-identical");
+    }
+
+    @Test
+    void rejectsDataWithoutATrailer() {
+        assertThrows(ZipException.class, () -> ZipDirectory.findTrailer(ByteBuffer.wrap(new byte[1024]), 0));
+    }
+
+    private static ZipDirectory.Entry onlyEntry(byte[] content, long time) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            ZipEntry entry = new ZipEntry("Game.class");
+            entry.setTime(time);
+            zip.putNextEntry(entry);
+            zip.write(content);
+        }
+        Path archive = Files.write(Files.createTempFile("woodlanders-zip-test", ".jar"), bytes.toByteArray());
+        return ZipDirectory.read(archive).entries().get(0);
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
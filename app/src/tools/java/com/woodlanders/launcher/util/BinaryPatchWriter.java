@@ -0,0 +1,152 @@
+package com.woodlanders.launcher.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Release tooling that writes patches in the {@link BinaryPatch} format. An rsync-style rolling
+ * checksum finds the blocks of the new jar that already exist in the old one, so entries that did not
+ * change between two jars are copied from the local file no matter where they moved.
+ *
+ * <pre>
+ *   ./gradlew :app:releasePatch -PpatchFrom=old.jar -PpatchTo=new.jar -PpatchOut=old-to-new.wlpatch
+ * </pre>
+ */
+public final class BinaryPatchWriter {
+    private static final int BLOCK_SIZE = 1024;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private BinaryPatchWriter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: BinaryPatchWriter <source jar> <target jar> <patch file>");
+            System.exit(2);
+        }
+        byte[] source = Files.readAllBytes(Path.of(args[0]));
+        byte[] target = Files.readAllBytes(Path.of(args[1]));
+        try (OutputStream patch = Files.newOutputStream(Path.of(args[2]))) {
+            create(source, target, patch);
+        }
+        System.out.println("Wrote " + Files.size(Path.of(args[2])) + " byte patch for a " + target.length
+                + " byte target to " + args[2]);
+    }
+
+    /**
+     * Writes a patch that turns {@code source} into {@code target}. Both files are held in memory.
+     */
+    public static void create(byte[] source, byte[] target, OutputStream patch) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(patch, OUTPUT_BUFFER_SIZE));
+        out.write(BinaryPatch.MAGIC);
+        out.write(sha256(source));
+        out.write(sha256(target));
+        out.writeLong(target.length);
+
+        Map<Integer, List<Integer>> blocks = indexBlocks(source);
+        int literalStart = 0;
+        int position = 0;
+        RollingChecksum checksum = new RollingChecksum();
+        boolean primed = false;
+        while (position + BLOCK_SIZE <= target.length) {
+            if (!primed) {
+                checksum.reset(target, position);
+                primed = true;
+            }
+            int match = findMatch(blocks.get(checksum.value()), source, target, position);
+            if (match >= 0) {
+                int length = BLOCK_SIZE;
+                while (match + length < source.length && position + length < target.length
+                        && source[match + length] == target[position + length]) {
+                    length++;
+                }
+                writeInsert(out, target, literalStart, position);
+                out.writeByte(BinaryPatch.OP_COPY);
+                out.writeLong(match);
+                out.writeInt(length);
+                position += length;
+                literalStart = position;
+                primed = false;
+                continue;
+            }
+            if (position + BLOCK_SIZE < target.length) {
+                checksum.roll(target[position], target[position + BLOCK_SIZE]);
+            }
+            position++;
+        }
+        writeInsert(out, target, literalStart, target.length);
+        out.writeByte(BinaryPatch.OP_END);
+        out.flush();
+    }
+
+    private static Map<Integer, List<Integer>> indexBlocks(byte[] source) {
+        Map<Integer, List<Integer>> blocks = new HashMap<>();
+        RollingChecksum checksum = new RollingChecksum();
+        for (int offset = 0; offset + BLOCK_SIZE <= source.length; offset += BLOCK_SIZE) {
+            checksum.reset(source, offset);
+            blocks.computeIfAbsent(checksum.value(), key -> new ArrayList<>(1)).add(offset);
+        }
+        return blocks;
+    }
+
+    private static int findMatch(List<Integer> candidates, byte[] source, byte[] target, int position) {
+        if (candidates == null) {
+            return -1;
+        }
+        for (int candidate : candidates) {
+            if (Arrays.equals(source, candidate, candidate + BLOCK_SIZE, target, position, position + BLOCK_SIZE)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private static void writeInsert(DataOutputStream out, byte[] target, int from, int to) throws IOException {
+        if (to > from) {
+            out.writeByte(BinaryPatch.OP_INSERT);
+            out.writeInt(to - from);
+            out.write(target, from, to - from);
+        }
+    }
+
+    private static byte[] sha256(byte[] data) {
+        return Hashing.newSha256().digest(data);
+    }
+
+    /**
+     * Adler-style weak checksum over a {@link #BLOCK_SIZE} window that can slide by one byte in O(1).
+     */
+    private static final class RollingChecksum {
+        private int a;
+        private int b;
+
+        void reset(byte[] data, int offset) {
+            a = 0;
+            b = 0;
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                int value = data[offset + i] & 0xff;
+                a += value;
+                b += (BLOCK_SIZE - i) * value;
+            }
+        }
+
+        void roll(byte outgoing, byte incoming) {
+            int out = outgoing & 0xff;
+            a += (incoming & 0xff) - out;
+            b += a - BLOCK_SIZE * out;
+        }
+
+        int value() {
+            return (a & 0xffff) | (b << 16);
+        }
+    }
+}
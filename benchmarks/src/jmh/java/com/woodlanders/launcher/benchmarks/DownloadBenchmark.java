@@ -0,0 +1,124 @@
+package com.woodlanders.launcher.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.woodlanders.launcher.model.DownloadResult;
+import com.woodlanders.launcher.model.ReleaseInfo;
+import com.woodlanders.launcher.services.ClientStore;
+import com.woodlanders.launcher.services.DownloadJournalStore;
+import com.woodlanders.launcher.services.DownloadService;
+import com.woodlanders.launcher.util.ObjectMapperFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Full {@link DownloadService#downloadRelease(ReleaseInfo)} runs against an in-process HTTP server
+ * that honours range requests: transfer, hashing while writing, the journal and the move into the
+ * client store. Loopback removes the network, so regressions here are the launcher's own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DownloadBenchmark {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    @Param({"8388608", "67108864"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int segments;
+
+    private byte[] payload;
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private Path home;
+    private String originalHome;
+    private DownloadService service;
+    private ReleaseInfo release;
+
+    @Setup
+    public void start() throws IOException {
+        payload = new byte[size];
+        new Random(42).nextBytes(payload);
+        // LauncherPaths resolves everything under user.home, so keep the benchmark out of the real one
+        originalHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("woodlanders-download-benchmark");
+        System.setProperty("user.home", home.toString());
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverThreads);
+        server.createContext("/client.jar", this::serve);
+        server.start();
+
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        service = new DownloadService(httpClient, "woodlanders-benchmark",
+                new DownloadJournalStore(ObjectMapperFactory.create()), new ClientStore(), segments);
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/client.jar");
+        // No published hash, so every invocation transfers instead of reusing the stored jar
+        release = new ReleaseInfo("v1.0.0", uri, payload.length);
+    }
+
+    @TearDown
+    public void stop() throws IOException {
+        server.stop(0);
+        serverThreads.shutdownNow();
+        System.setProperty("user.home", originalHome);
+        try (Stream<Path> files = Files.walk(home)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public DownloadResult downloadRelease() throws IOException, InterruptedException {
+        return service.downloadRelease(release);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        Matcher matcher = range != null ? RANGE.matcher(range) : null;
+        int start = 0;
+        int end = payload.length - 1;
+        int status = 200;
+        exchange.getResponseHeaders().add("ETag", "\"benchmark\"");
+        if (matcher != null && matcher.matches()) {
+            start = Integer.parseInt(matcher.group(1));
+            end = Math.min(end, Integer.parseInt(matcher.group(2)));
+            status = 206;
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + payload.length);
+        }
+        int length = end - start + 1;
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload, start, length);
+        } catch (IOException e) {
+            // client went away, e.g. a cancelled segment
+        }
+        exchange.close();
+    }
+}
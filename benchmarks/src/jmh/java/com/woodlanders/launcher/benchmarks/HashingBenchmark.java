@@ -0,0 +1,59 @@
+package com.woodlanders.launcher.benchmarks;
+
+import com.woodlanders.launcher.services.DownloadCacheService;
+import com.woodlanders.launcher.util.Hashing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SHA-256 of client jars of different sizes. The sizes straddle the point where {@link Hashing}
+ * switches from buffered reads to memory mapping; the file stays in the page cache, so this
+ * measures the digest and the read path rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HashingBenchmark {
+    @Param({"65536", "4194304", "33554432", "134217728"})
+    public int size;
+
+    private Path file;
+    private final DownloadCacheService cacheService = new DownloadCacheService();
+
+    @Setup
+    public void createFile() throws IOException {
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        file = Files.createTempFile("woodlanders-hashing-benchmark", ".jar");
+        Files.write(file, content);
+    }
+
+    @TearDown
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String hashingSha256() throws IOException {
+        return Hashing.sha256(file);
+    }
+
+    @Benchmark
+    public String downloadCacheServiceSha256() throws IOException, NoSuchAlgorithmException {
+        return cacheService.calculateSha256(file.toFile());
+    }
+}
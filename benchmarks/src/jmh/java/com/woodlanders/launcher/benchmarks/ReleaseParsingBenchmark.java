@@ -0,0 +1,165 @@
+package com.woodlanders.launcher.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.woodlanders.launcher.model.ReleaseInfo;
+import com.woodlanders.launcher.services.ReleaseJsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses GitHub release payloads shaped like the real API responses: author and uploader objects,
+ * dozens of assets with the client jar and its patches among them, and a long Markdown body after
+ * the asset list. {@code /releases/latest} is parsed the way {@code GithubReleaseService} does it;
+ * a full {@code /releases} page exercises the non-stopping path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReleaseParsingBenchmark {
+    private static final String REPOSITORY = "https://api.github.com/repos/gcclinux/Woodlanders";
+
+    @Param({"10", "60"})
+    public int assets;
+
+    @Param({"4096", "262144"})
+    public int bodyLength;
+
+    private final ReleaseJsonParser parser = new ReleaseJsonParser(new JsonFactory());
+    private byte[] latestRelease;
+    private byte[] releasePage;
+
+    @Setup
+    public void buildPayloads() throws IOException {
+        JsonFactory factory = new JsonFactory();
+        ByteArrayOutputStream latest = new ByteArrayOutputStream();
+        try (JsonGenerator generator = factory.createGenerator(latest)) {
+            writeRelease(generator, 30);
+        }
+        latestRelease = latest.toByteArray();
+
+        ByteArrayOutputStream page = new ByteArrayOutputStream();
+        try (JsonGenerator generator = factory.createGenerator(page)) {
+            generator.writeStartArray();
+            for (int i = 30; i > 0; i--) {
+                writeRelease(generator, i);
+            }
+            generator.writeEndArray();
+        }
+        releasePage = page.toByteArray();
+    }
+
+    @Benchmark
+    public Optional<ReleaseInfo> parseLatestRelease() throws IOException {
+        return parser.parseRelease(new ByteArrayInputStream(latestRelease));
+    }
+
+    @Benchmark
+    public List<ReleaseInfo> parseReleasePage() throws IOException {
+        return parser.parseReleaseList(new ByteArrayInputStream(releasePage));
+    }
+
+    private void writeRelease(JsonGenerator generator, int minor) throws IOException {
+        Random random = new Random(minor);
+        String tag = "v1." + minor + ".0";
+        long id = 180_000_000L + minor;
+        generator.writeStartObject();
+        generator.writeStringField("url", REPOSITORY + "/releases/" + id);
+        generator.writeStringField("assets_url", REPOSITORY + "/releases/" + id + "/assets");
+        generator.writeStringField("html_url", "https://github.com/gcclinux/Woodlanders/releases/tag/" + tag);
+        generator.writeNumberField("id", id);
+        generator.writeFieldName("author");
+        writeUser(generator);
+        generator.writeStringField("node_id", "RE_kwDOL" + Long.toHexString(id));
+        generator.writeStringField("tag_name", tag);
+        generator.writeStringField("target_commitish", "main");
+        generator.writeStringField("name", "Woodlanders " + tag);
+        generator.writeBooleanField("draft", false);
+        generator.writeBooleanField("prerelease", false);
+        generator.writeStringField("created_at", "2025-06-01T12:00:00Z");
+        generator.writeStringField("published_at", "2025-06-01T12:30:00Z");
+        generator.writeArrayFieldStart("assets");
+        for (int i = 0; i < assets; i++) {
+            String name;
+            if (i == assets / 2) {
+                name = "woodlanders-client.jar";
+            } else if (i % 3 == 0) {
+                name = "woodlanders-client-from-" + hex(random, 64) + ".patch";
+            } else {
+                name = "woodlanders-server-" + i + ".tar.gz";
+            }
+            writeAsset(generator, random, id * 100 + i, tag, name);
+        }
+        generator.writeEndArray();
+        generator.writeStringField("tarball_url", REPOSITORY + "/tarball/" + tag);
+        generator.writeStringField("zipball_url", REPOSITORY + "/zipball/" + tag);
+        generator.writeStringField("body", changelog(random));
+        generator.writeEndObject();
+    }
+
+    private static void writeAsset(JsonGenerator generator, Random random, long id, String tag, String name)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("url", REPOSITORY + "/releases/assets/" + id);
+        generator.writeNumberField("id", id);
+        generator.writeStringField("node_id", "RA_kwDOL" + Long.toHexString(id));
+        generator.writeStringField("name", name);
+        generator.writeNullField("label");
+        generator.writeFieldName("uploader");
+        writeUser(generator);
+        generator.writeStringField("content_type", "application/octet-stream");
+        generator.writeStringField("state", "uploaded");
+        generator.writeNumberField("size", 20_000_000 + random.nextInt(5_000_000));
+        generator.writeStringField("digest", "sha256:" + hex(random, 64));
+        generator.writeNumberField("download_count", random.nextInt(10_000));
+        generator.writeStringField("created_at", "2025-06-01T12:10:00Z");
+        generator.writeStringField("updated_at", "2025-06-01T12:11:00Z");
+        generator.writeStringField("browser_download_url",
+                "https://github.com/gcclinux/Woodlanders/releases/download/" + tag + "/" + name);
+        generator.writeEndObject();
+    }
+
+    private static void writeUser(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("login", "gcclinux");
+        generator.writeNumberField("id", 1_234_567);
+        generator.writeStringField("avatar_url", "https://avatars.githubusercontent.com/u/1234567?v=4");
+        generator.writeStringField("html_url", "https://github.com/gcclinux");
+        generator.writeStringField("type", "User");
+        generator.writeBooleanField("site_admin", false);
+        generator.writeEndObject();
+    }
+
+    private String changelog(Random random) {
+        StringBuilder body = new StringBuilder(bodyLength + 64);
+        body.append("## What's changed\n\n");
+        while (body.length() < bodyLength) {
+            body.append("* Fix \"").append(hex(random, 8)).append("\" in the world generator by @gcclinux in #")
+                    .append(random.nextInt(1000)).append('\n');
+        }
+        body.setLength(bodyLength);
+        return body.toString();
+    }
+
+    private static String hex(Random random, int length) {
+        StringBuilder hex = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            hex.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return hex.toString();
+    }
+}